@@ -0,0 +1,101 @@
+package tech.jhipster.operator.benchmarks;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.fabric8.kubernetes.api.model.ObjectMeta;
+import io.fabric8.kubernetes.client.utils.Serialization;
+import tech.jhipster.operator.app.AppState;
+import tech.jhipster.operator.crds.app.Application;
+import tech.jhipster.operator.crds.app.ApplicationStatus;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Function;
+
+/*
+ * Heap retained per app by the full Application resources vs the AppState projection kept by the AppService
+ *  - The Applications are read from JSON, as they come from the watches, with the metadata set by the API Server and
+ *    the last-applied-configuration annotation set by kubectl apply
+ *  - The retained size is the heap after GC while the apps are referenced, minus the heap after GC before
+ *    mvn -Pbenchmarks compile exec:exec@footprint -Dfootprint.args="apps=10000 microservices=10"
+ */
+public class AppFootprint {
+
+    private static final ObjectMapper MAPPER = Serialization.jsonMapper();
+
+    private int apps = 10000;
+    private int microservices = 10;
+
+    public static void main(String[] args) throws IOException {
+        AppFootprint footprint = new AppFootprint();
+        for (String arg : args) {
+            String[] option = arg.replaceFirst("^--", "").split("=", 2);
+            if (option.length != 2) {
+                throw new IllegalArgumentException("Expected name=value, got: " + arg);
+            }
+            switch (option[0]) {
+                case "apps": footprint.apps = Integer.parseInt(option[1]); break;
+                case "microservices": footprint.microservices = Integer.parseInt(option[1]); break;
+                default: throw new IllegalArgumentException("Unknown option: " + option[0]);
+            }
+        }
+        footprint.run();
+    }
+
+    public void run() throws IOException {
+        List<byte[]> events = new ArrayList<>(apps);
+        JHipsterFleet fleet = new JHipsterFleet(null, OperatorHarness.NAMESPACE);
+        for (int i = 0; i < apps; i++) {
+            events.add(MAPPER.writeValueAsBytes(asStored(fleet.application(i, microservices))));
+        }
+        System.out.println(String.format("%d apps with %d microservices each, %d bytes of JSON per app",
+                apps, microservices, events.stream().mapToLong(json -> json.length).sum() / apps));
+
+        long application = retained(events, app -> app);
+        long state = retained(events, AppState::of);
+        System.out.println(String.format("Application: %d bytes per app, %d MB", application / apps, application >> 20));
+        System.out.println(String.format("AppState:    %d bytes per app, %d MB", state / apps, state >> 20));
+    }
+
+    /*
+     * What the API Server adds to an app created with kubectl apply
+     */
+    private Application asStored(Application app) throws IOException {
+        ObjectMeta metadata = app.getMetadata();
+        app.setKind("Application");
+        app.setStatus(new ApplicationStatus("HEALTHY", "http://10.0.0.1/apps/" + metadata.getName() + "/1.0/", 1L));
+        String lastApplied = MAPPER.writeValueAsString(app);
+        metadata.setUid(UUID.randomUUID().toString());
+        metadata.setResourceVersion(Long.toString(System.nanoTime()));
+        metadata.setGeneration(1L);
+        metadata.setCreationTimestamp("2019-01-01T00:00:00Z");
+        metadata.setSelfLink("/apis/alpha.k8s.jhipster.tech/v1/namespaces/" + metadata.getNamespace()
+                + "/applications/" + metadata.getName());
+        metadata.setAnnotations(Collections.singletonMap("kubectl.kubernetes.io/last-applied-configuration", lastApplied));
+        return app;
+    }
+
+    private long retained(List<byte[]> events, Function<Application, Object> keep) throws IOException {
+        long before = heapAfterGC();
+        List<Object> kept = new ArrayList<>(events.size());
+        for (byte[] json : events) {
+            kept.add(keep.apply(MAPPER.readValue(json, Application.class)));
+        }
+        long after = heapAfterGC();
+        if (kept.isEmpty()) {
+            throw new IllegalStateException();
+        }
+        return after - before;
+    }
+
+    private static long heapAfterGC() {
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+    }
+
+}
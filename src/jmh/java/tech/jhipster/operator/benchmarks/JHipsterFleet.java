@@ -0,0 +1,186 @@
+package tech.jhipster.operator.benchmarks;
+
+import io.fabric8.kubernetes.api.model.HasMetadata;
+import io.fabric8.kubernetes.api.model.ObjectMetaBuilder;
+import io.fabric8.kubernetes.api.model.Service;
+import io.fabric8.kubernetes.api.model.ServiceBuilder;
+import io.fabric8.kubernetes.api.model.apiextensions.CustomResourceDefinition;
+import io.fabric8.kubernetes.api.model.apiextensions.CustomResourceDefinitionBuilder;
+import tech.jhipster.operator.app.AppCRDs;
+import tech.jhipster.operator.crds.app.Application;
+import tech.jhipster.operator.crds.app.ApplicationSpec;
+import tech.jhipster.operator.crds.app.MicroServiceDescr;
+import tech.jhipster.operator.crds.app.ServiceSpec;
+import tech.jhipster.operator.crds.gateway.Gateway;
+import tech.jhipster.operator.crds.microservice.MicroService;
+import tech.jhipster.operator.crds.registry.Registry;
+import tech.jhipster.operator.fake.FakeKubernetesApi;
+
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.Set;
+import java.util.function.BiConsumer;
+
+/*
+ * Generated JHipster apps, modeled on kubernetes/examples: each app has its own gateway, registry and microservices,
+ * all labeled with the app name and each one with a K8s Service of the same name
+ */
+public class JHipsterFleet {
+
+    public static final String VERSION = "v1";
+
+    private final FakeKubernetesApi api;
+    private final String namespace;
+
+    public JHipsterFleet(FakeKubernetesApi api, String namespace) {
+        this.api = api;
+        this.namespace = namespace;
+    }
+
+    /*
+     * The four CRDs that the operator requires
+     */
+    public static void seedCustomResourceDefinitions(FakeKubernetesApi api) {
+        seedCustomResourceDefinition(api, "applications", "Application");
+        seedCustomResourceDefinition(api, "microservices", "MicroService");
+        seedCustomResourceDefinition(api, "gateways", "Gateway");
+        seedCustomResourceDefinition(api, "registries", "Registry");
+    }
+
+    private static void seedCustomResourceDefinition(FakeKubernetesApi api, String plural, String kind) {
+        CustomResourceDefinition crd = new CustomResourceDefinitionBuilder()
+                .withNewMetadata().withName(plural + "." + AppCRDs.APP_CRD_GROUP).endMetadata()
+                .withNewSpec().withGroup(AppCRDs.APP_CRD_GROUP).withVersion(VERSION).withScope("Namespaced")
+                .withNewNames().withPlural(plural).withKind(kind).endNames()
+                .endSpec()
+                .build();
+        api.seed("/apis/apiextensions.k8s.io/v1beta1/customresourcedefinitions", crd);
+    }
+
+    /*
+     * Seed the apps [from, to) with the given number of microservices each
+     */
+    public void seedApps(int from, int to, int microservices) {
+        for (int i = from; i < to; i++) {
+            seedApp(i, microservices);
+        }
+    }
+
+    public void seedApp(int index, int microservices) {
+        writeApp(index, microservices, api::seed);
+    }
+
+    /*
+     * Same as seedApp(), but as a client would create it, the watches are notified
+     */
+    public void createApp(int index, int microservices) {
+        writeApp(index, microservices, api::create);
+    }
+
+    public void deleteMicroService(int app, int microservice) {
+        api.delete(path("microservices"), microServiceName(app, microservice));
+    }
+
+    public void createMicroService(int app, int microservice) {
+        api.create(path("microservices"), microService(microServiceName(app, microservice), appName(app)));
+    }
+
+    /*
+     * The dependencies are written before the Application that references them
+     */
+    private void writeApp(int index, int microservices, BiConsumer<String, HasMetadata> writer) {
+        String appName = appName(index);
+        for (int j = 0; j < microservices; j++) {
+            String name = microServiceName(index, j);
+            writer.accept(path("microservices"), microService(name, appName));
+            writer.accept(FakeKubernetesApi.servicesPath(namespace), service(name, appName));
+        }
+        Gateway gateway = new Gateway();
+        gateway.setApiVersion(AppCRDs.APP_CRD_GROUP + "/" + VERSION);
+        gateway.setMetadata(metadata(gatewayName(index), appName));
+        gateway.setSpec(serviceSpec(gatewayName(index)));
+        writer.accept(path("gateways"), gateway);
+        writer.accept(FakeKubernetesApi.servicesPath(namespace), service(gatewayName(index), appName));
+
+        Registry registry = new Registry();
+        registry.setApiVersion(AppCRDs.APP_CRD_GROUP + "/" + VERSION);
+        registry.setMetadata(metadata(registryName(index), appName));
+        registry.setSpec(serviceSpec(registryName(index)));
+        writer.accept(path("registries"), registry);
+        writer.accept(FakeKubernetesApi.servicesPath(namespace), service(registryName(index), appName));
+
+        writer.accept(path("applications"), application(index, microservices));
+    }
+
+    public Application application(int index, int microservices) {
+        String appName = appName(index);
+        Set<MicroServiceDescr> descriptors = new LinkedHashSet<>();
+        for (int j = 0; j < microservices; j++) {
+            String name = microServiceName(index, j);
+            descriptors.add(new MicroServiceDescr(name, "MicroService", name));
+        }
+        Application application = new Application();
+        application.setApiVersion(AppCRDs.APP_CRD_GROUP + "/" + VERSION);
+        application.setMetadata(new ObjectMetaBuilder().withName(appName).withNamespace(namespace).build());
+        ApplicationSpec spec = new ApplicationSpec();
+        spec.setVersion("1.0");
+        spec.setSelector(appName);
+        spec.setMicroservices(descriptors);
+        spec.setGateway(gatewayName(index));
+        spec.setRegistry(registryName(index));
+        application.setSpec(spec);
+        return application;
+    }
+
+    public String path(String plural) {
+        return FakeKubernetesApi.customResourcesPath(AppCRDs.APP_CRD_GROUP, VERSION, namespace, plural);
+    }
+
+    public String getNamespace() {
+        return namespace;
+    }
+
+    public static String appName(int index) {
+        return "app-" + index;
+    }
+
+    public static String microServiceName(int app, int microservice) {
+        return "app-" + app + "-ms-" + microservice;
+    }
+
+    public static String gatewayName(int app) {
+        return "app-" + app + "-gateway";
+    }
+
+    public static String registryName(int app) {
+        return "app-" + app + "-registry";
+    }
+
+    private io.fabric8.kubernetes.api.model.ObjectMeta metadata(String name, String appName) {
+        return new ObjectMetaBuilder().withName(name).withNamespace(namespace)
+                .withLabels(Collections.singletonMap("app", appName)).build();
+    }
+
+    private MicroService microService(String name, String appName) {
+        MicroService microService = new MicroService();
+        microService.setApiVersion(AppCRDs.APP_CRD_GROUP + "/" + VERSION);
+        microService.setMetadata(metadata(name, appName));
+        microService.setSpec(serviceSpec(name));
+        return microService;
+    }
+
+    private static ServiceSpec serviceSpec(String serviceName) {
+        ServiceSpec spec = new ServiceSpec();
+        spec.setServiceName(serviceName);
+        spec.setServiceVersion("1.0");
+        return spec;
+    }
+
+    private Service service(String name, String appName) {
+        return new ServiceBuilder()
+                .withNewMetadata().withName(name).withNamespace(namespace).addToLabels("app", appName).endMetadata()
+                .withNewSpec().withType("ClusterIP").addNewPort().withPort(8080).endPort().endSpec()
+                .build();
+    }
+
+}
@@ -0,0 +1,144 @@
+package tech.jhipster.operator.benchmarks;
+
+import ch.qos.logback.classic.Level;
+import io.fabric8.kubernetes.client.KubernetesClient;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.util.ReflectionUtils;
+import tech.jhipster.operator.AppsOperator;
+import tech.jhipster.operator.JHipsterOperatorConfiguration;
+import tech.jhipster.operator.app.AppService;
+import tech.jhipster.operator.core.K8SCoreRuntime;
+import tech.jhipster.operator.core.OperatorMetrics;
+import tech.jhipster.operator.core.ReplicaCoordinator;
+import tech.jhipster.operator.fake.FakeKubernetesApi;
+
+import java.io.IOException;
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.List;
+
+/*
+ * The operator components wired by hand (no Spring context) against a FakeKubernetesApi seeded with a JHipsterFleet
+ *  - The reconcile workers are turned off, the benchmarks call reconcile() themselves
+ */
+public class OperatorHarness implements AutoCloseable {
+
+    public static final String NAMESPACE = "jhipster";
+
+    private final FakeKubernetesApi api = new FakeKubernetesApi();
+    private final List<String> appKeys = new ArrayList<>();
+    private KubernetesClient client;
+    private AppsOperator operator;
+    private AppService appService;
+
+    public static OperatorHarness start(int apps, int microservices) throws IOException {
+        OperatorHarness harness = new OperatorHarness();
+        harness.init(apps, microservices);
+        return harness;
+    }
+
+    private void init(int apps, int microservices) throws IOException {
+        ((ch.qos.logback.classic.Logger) LoggerFactory.getLogger(Logger.ROOT_LOGGER_NAME)).setLevel(Level.WARN);
+        api.start();
+        JHipsterFleet.seedCustomResourceDefinitions(api);
+        new JHipsterFleet(api, NAMESPACE).seedApps(0, apps, microservices);
+        for (int i = 0; i < apps; i++) {
+            appKeys.add(AppService.appKey(NAMESPACE, JHipsterFleet.appName(i)));
+        }
+
+        JHipsterOperatorConfiguration config = new JHipsterOperatorConfiguration();
+        OperatorMetrics metrics = new OperatorMetrics();
+        inject(metrics, "registry", new SimpleMeterRegistry());
+        // Same client as the operator gets from Spring
+        client = config.kubernetesClient(api.createClientConfig(NAMESPACE), metrics);
+
+        K8SCoreRuntime k8SCoreRuntime = new K8SCoreRuntime();
+        inject(k8SCoreRuntime, "kubernetesClient", client);
+        inject(k8SCoreRuntime, "operatorMetrics", metrics);
+        k8SCoreRuntime.init();
+
+        appService = new AppService();
+        inject(appService, "k8SCoreRuntime", k8SCoreRuntime);
+        inject(appService, "config", config);
+
+        ReplicaCoordinator replicaCoordinator = new ReplicaCoordinator();
+        inject(replicaCoordinator, "kubernetesClient", client);
+        inject(replicaCoordinator, "config", config);
+        replicaCoordinator.init();
+
+        operator = new AppsOperator();
+        inject(operator, "appService", appService);
+        inject(operator, "config", config);
+        inject(operator, "k8SCoreRuntime", k8SCoreRuntime);
+        inject(operator, "replicaCoordinator", replicaCoordinator);
+        inject(operator, "operatorMetrics", metrics);
+        operator.registerMetrics();
+        operator.setOn(false);
+        operator.bootstrap();
+        if (!operator.isInitDone()) {
+            throw new IllegalStateException("The operator didn't start against the fake API Server");
+        }
+    }
+
+    /*
+     * Reconcile every app once (owner references and first status write) and wait for the resulting watch events
+     */
+    public void reconcileAll() {
+        for (String appKey : appKeys) {
+            operator.reconcile(appKey);
+        }
+        awaitQuiet();
+    }
+
+    /*
+     * Wait until the fake API Server didn't get a request for a while
+     */
+    public void awaitQuiet() {
+        long last = -1;
+        while (last != api.getTotalRequests()) {
+            last = api.getTotalRequests();
+            try {
+                Thread.sleep(200);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    public FakeKubernetesApi getApi() {
+        return api;
+    }
+
+    public AppsOperator getOperator() {
+        return operator;
+    }
+
+    public AppService getAppService() {
+        return appService;
+    }
+
+    public List<String> getAppKeys() {
+        return appKeys;
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (client != null) {
+            client.close();
+        }
+        api.stop();
+    }
+
+    private static void inject(Object target, String fieldName, Object value) {
+        Field field = ReflectionUtils.findField(target.getClass(), fieldName);
+        if (field == null) {
+            throw new IllegalArgumentException(target.getClass().getSimpleName() + " has no field " + fieldName);
+        }
+        ReflectionUtils.makeAccessible(field);
+        ReflectionUtils.setField(field, target, value);
+    }
+
+}
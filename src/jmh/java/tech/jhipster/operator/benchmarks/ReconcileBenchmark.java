@@ -0,0 +1,114 @@
+package tech.jhipster.operator.benchmarks;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import tech.jhipster.operator.app.AppState;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/*
+ * Reconcile hot path against the fake K8s API Server
+ *  - reconcile: steady state, nothing changed since the last reconcile of the app
+ *  - reconcileWithStatusWrite: the last written status is forgotten, so every reconcile queues a status write, the
+ *    write-behind buffer writes it in the background (apiCalls counts the writes flushed meanwhile)
+ *  - structureCheck: the app structure check used by reconcile
+ *  - getApps: GET /apps/
+ * The apiCalls counter is the number of requests that reached the API Server, divide it by the reconciles counter
+ * to get the API calls per reconcile
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ReconcileBenchmark {
+
+    @Param({"100", "1000"})
+    public int apps;
+
+    @Param({"1", "10"})
+    public int microservices;
+
+    private OperatorHarness harness;
+    private List<String> appKeys;
+    private int next;
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class ApiCalls {
+        public long apiCalls;
+        public long reconciles;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            apiCalls = 0;
+            reconciles = 0;
+        }
+    }
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        harness = OperatorHarness.start(apps, microservices);
+        harness.reconcileAll();
+        appKeys = harness.getAppKeys();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        System.out.println("\nAPI requests during the trial: " + harness.getApi().getRequests());
+        harness.close();
+    }
+
+    private String nextApp() {
+        next = (next + 1) % appKeys.size();
+        return appKeys.get(next);
+    }
+
+    @Benchmark
+    public boolean reconcile(ApiCalls calls) {
+        long before = harness.getApi().getTotalRequests();
+        boolean reconciled = harness.getOperator().reconcile(nextApp());
+        calls.apiCalls += harness.getApi().getTotalRequests() - before;
+        calls.reconciles++;
+        return reconciled;
+    }
+
+    @Benchmark
+    public boolean reconcileWithStatusWrite(ApiCalls calls) {
+        String appKey = nextApp();
+        harness.getOperator().getStatusWrites().forget(appKey);
+        long before = harness.getApi().getTotalRequests();
+        boolean reconciled = harness.getOperator().reconcile(appKey);
+        calls.apiCalls += harness.getApi().getTotalRequests() - before;
+        calls.reconciles++;
+        return reconciled;
+    }
+
+    @Benchmark
+    public boolean structureCheck() {
+        AppState app = harness.getAppService().getApp(nextApp());
+        return harness.getAppService().isAppStructureComplete(app);
+    }
+
+    @Benchmark
+    public void getApps(Blackhole blackhole) {
+        blackhole.consume(harness.getAppService().getApps());
+    }
+
+}
@@ -0,0 +1,224 @@
+package tech.jhipster.operator.benchmarks;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import tech.jhipster.operator.AppsOperator;
+import tech.jhipster.operator.MyApplication;
+import tech.jhipster.operator.app.AppStatus;
+import tech.jhipster.operator.app.AppService;
+import tech.jhipster.operator.fake.FakeKubernetesApi;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.IntSupplier;
+
+/*
+ * Scale test: the real operator (Spring context) against a FakeKubernetesApi seeded with thousands of apps
+ *  - startup: all the seeded apps must become HEALTHY
+ *  - outage: a MicroService of some apps is deleted, those apps must stop being HEALTHY
+ *  - recovery: the deleted MicroServices are created again, all the apps must be HEALTHY again
+ *  - scale-out: new apps are created, they must become HEALTHY
+ * A phase converged when the apps have the expected status, the watch events were applied and the write-behind buffer
+ * wrote everything
+ * For every phase it reports the time to converge, the peak heap, the heap after a GC, the API requests, the watch
+ * events of the operator's own writes that were dropped (echoes), the watch queue overflows and the adaptive API
+ * concurrency limit
+ * The fake API Server runs in the same JVM, the heap includes its copy of the resources
+ *
+ *   mvn -Pbenchmarks compile exec:exec@scale -Dscale.args="apps=5000 microservices=10 churn=500"
+ */
+public class ScaleSimulator {
+
+    public static final String NAMESPACE = "jhipster";
+
+    private final int apps;
+    private final int microservices;
+    private final int churn;
+    private final long timeout;
+    private final FakeKubernetesApi api = new FakeKubernetesApi();
+    private final JHipsterFleet fleet = new JHipsterFleet(api, NAMESPACE);
+    private final List<String> report = new ArrayList<>();
+    private ConfigurableApplicationContext context;
+    private AppService appService;
+
+    public ScaleSimulator(int apps, int microservices, int churn, long timeout) {
+        this.apps = apps;
+        this.microservices = microservices;
+        this.churn = Math.min(churn, apps);
+        this.timeout = timeout;
+    }
+
+    public static void main(String[] args) throws Exception {
+        int apps = 5000;
+        int microservices = 10;
+        int churn = 500;
+        long timeout = 600000;
+        for (String arg : args) {
+            String[] option = arg.replaceFirst("^--", "").split("=", 2);
+            if (option.length != 2) {
+                throw new IllegalArgumentException("Expected name=value, found: " + arg);
+            }
+            switch (option[0]) {
+                case "apps":
+                    apps = Integer.parseInt(option[1]);
+                    break;
+                case "microservices":
+                    microservices = Integer.parseInt(option[1]);
+                    break;
+                case "churn":
+                    churn = Integer.parseInt(option[1]);
+                    break;
+                case "timeout":
+                    timeout = Long.parseLong(option[1]);
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown option: " + option[0]);
+            }
+        }
+        ScaleSimulator simulator = new ScaleSimulator(apps, microservices, churn, timeout);
+        try {
+            simulator.run();
+        } finally {
+            simulator.stop();
+        }
+        simulator.report.forEach(System.out::println);
+        System.exit(0);
+    }
+
+    public void run() throws Exception {
+        api.start();
+        JHipsterFleet.seedCustomResourceDefinitions(api);
+        fleet.seedApps(0, apps, microservices);
+        report.add(String.format("%d apps with %d microservices each, %d resources seeded, churn %d apps",
+                apps, microservices, apps * (2 * microservices + 5), churn));
+
+        IntSupplier healthy = () -> appService == null ? 0 : appService.countApps(AppStatus.HEALTHY);
+        phase("startup", this::startOperator, () -> healthy.getAsInt() == apps);
+
+        List<Integer> churned = new ArrayList<>();
+        for (int i = 0; i < churn; i++) {
+            churned.add((int) ((long) i * apps / churn));
+        }
+        if (microservices > 0) {
+            phase("outage", () -> churned.forEach(i -> fleet.deleteMicroService(i, 0)),
+                    () -> healthy.getAsInt() == apps - churn);
+            phase("recovery", () -> churned.forEach(i -> fleet.createMicroService(i, 0)),
+                    () -> healthy.getAsInt() == apps);
+        }
+        phase("scale-out", () -> {
+            for (int i = apps; i < apps + churn; i++) {
+                fleet.createApp(i, microservices);
+            }
+        }, () -> healthy.getAsInt() == apps + churn);
+    }
+
+    /*
+     * The properties are set as system properties, so the bootstrap context and the fabric8 Config also see them
+     */
+    private void startOperator() {
+        System.setProperty("kubernetes.master", api.getUrl());
+        System.setProperty("kubernetes.namespace", NAMESPACE);
+        System.setProperty("kubernetes.trust.certificates", "true");
+        System.setProperty("kubernetes.auth.tryKubeConfig", "false");
+        System.setProperty("kubernetes.auth.tryServiceAccount", "false");
+        System.setProperty("spring.cloud.kubernetes.client.master-url", api.getUrl());
+        System.setProperty("spring.cloud.kubernetes.client.namespace", NAMESPACE);
+        System.setProperty("spring.cloud.kubernetes.client.trust-certs", "true");
+        System.setProperty("spring.cloud.kubernetes.config.enabled", "false");
+        System.setProperty("spring.cloud.kubernetes.secrets.enabled", "false");
+        System.setProperty("spring.cloud.kubernetes.reload.enabled", "false");
+        System.setProperty("spring.cloud.kubernetes.discovery.enabled", "false");
+        System.setProperty("spring.main.banner-mode", "off");
+        System.setProperty("server.port", "0");
+        System.setProperty("logging.level.root", "WARN");
+        System.setProperty("logging.level.tech.jhipster.operator", "WARN");
+        long start = System.nanoTime();
+        context = new SpringApplicationBuilder(MyApplication.class).run();
+        appService = context.getBean(AppService.class);
+        report.add(String.format("Spring context started in %d ms", (System.nanoTime() - start) / 1000000L));
+    }
+
+    /*
+     * Run the action and wait until the operator converged
+     */
+    private void phase(String name, Runnable action, Convergence converged) throws InterruptedException {
+        List<MemoryPoolMXBean> heapPools = new ArrayList<>();
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() == MemoryType.HEAP) {
+                pool.resetPeakUsage();
+                heapPools.add(pool);
+            }
+        }
+        api.resetRequests();
+        double echoes = counter("jhipster.operator.watch.echoes.suppressed");
+        double overflows = counter("jhipster.operator.watch.queue.overflows");
+        long start = System.nanoTime();
+        action.run();
+        boolean done = converged.reached() && writesDone();
+        while (!done && System.nanoTime() - start < timeout * 1000000L) {
+            Thread.sleep(50);
+            done = converged.reached() && writesDone();
+        }
+        long elapsed = (System.nanoTime() - start) / 1000000L;
+        long requests = api.getTotalRequests();
+        Map<String, Long> requestsByType = api.getRequests();
+        echoes = counter("jhipster.operator.watch.echoes.suppressed") - echoes;
+        overflows = counter("jhipster.operator.watch.queue.overflows") - overflows;
+
+        long peakHeap = 0;
+        for (MemoryPoolMXBean pool : heapPools) {
+            peakHeap += pool.getPeakUsage().getUsed();
+        }
+        System.gc();
+        long heapAfterGC = ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+
+        report.add(String.format("%-10s %s in %d ms, peak heap %d MB, heap after GC %d MB, %d echoes dropped, %d watch queue overflows, API concurrency limit %d, %d API requests %s",
+                name, done ? "converged" : "DID NOT CONVERGE", elapsed, peakHeap >> 20, heapAfterGC >> 20, (long) echoes, (long) overflows,
+                (long) meter("jhipster.operator.k8s.api.concurrency.limit"), requests, requestsByType));
+    }
+
+    /*
+     * The watch events are applied and the statuses and owner references are written behind, a phase is over when
+     * nothing is left in the watch queues and the write-behind buffer
+     */
+    private boolean writesDone() {
+        return context != null && context.getBean(AppsOperator.class).getWriteBehind().isIdle()
+                && context.getBean(MeterRegistry.class).find("jhipster.operator.watch.queue.depth").gauges().stream()
+                .mapToDouble(Gauge::value).sum() == 0;
+    }
+
+    private double counter(String name) {
+        if (context == null) {
+            return 0;
+        }
+        return context.getBean(MeterRegistry.class).find(name).counters().stream()
+                .mapToDouble(Counter::count).sum();
+    }
+
+    private double meter(String gauge) {
+        if (context == null) {
+            return 0;
+        }
+        Gauge value = context.getBean(MeterRegistry.class).find(gauge).gauge();
+        return (value == null) ? 0 : value.value();
+    }
+
+    public void stop() throws Exception {
+        if (context != null) {
+            context.close();
+        }
+        api.stop();
+    }
+
+    private interface Convergence {
+        boolean reached();
+    }
+
+}
@@ -1,11 +1,18 @@
 package tech.jhipster.operator;
 
+import io.fabric8.kubernetes.api.model.Doneable;
+import io.fabric8.kubernetes.api.model.HasMetadata;
+import io.fabric8.kubernetes.api.model.KubernetesResourceList;
 import io.fabric8.kubernetes.api.model.ObjectMeta;
+import io.fabric8.kubernetes.api.model.ObjectMetaBuilder;
 import io.fabric8.kubernetes.api.model.apiextensions.CustomResourceDefinition;
 import io.fabric8.kubernetes.api.model.apiextensions.CustomResourceDefinitionList;
+import io.fabric8.kubernetes.client.CustomResource;
 import io.fabric8.kubernetes.client.KubernetesClientException;
 import io.fabric8.kubernetes.client.Watcher;
-import io.fabric8.kubernetes.client.dsl.NonNamespaceOperation;
+import io.fabric8.kubernetes.client.Watch;
+import io.fabric8.kubernetes.client.dsl.FilterWatchListDeletable;
+import io.fabric8.kubernetes.client.dsl.MixedOperation;
 import io.fabric8.kubernetes.client.dsl.Resource;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -13,7 +20,19 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import tech.jhipster.operator.app.AppCRDs;
 import tech.jhipster.operator.app.AppService;
+import tech.jhipster.operator.app.AppState;
+import tech.jhipster.operator.app.AppStatus;
+import tech.jhipster.operator.app.DependencyIndex;
+import tech.jhipster.operator.app.StatusWriteTracker;
+import tech.jhipster.operator.core.ExponentialBackoff;
 import tech.jhipster.operator.core.K8SCoreRuntime;
+import tech.jhipster.operator.core.OperatorMetrics;
+import tech.jhipster.operator.core.OwnWrites;
+import tech.jhipster.operator.core.ReplicaCoordinator;
+import tech.jhipster.operator.core.ResourceCache;
+import tech.jhipster.operator.core.ResourceCacheGroup;
+import tech.jhipster.operator.core.WorkQueue;
+import tech.jhipster.operator.core.WriteBehindBuffer;
 import tech.jhipster.operator.crds.app.*;
 import tech.jhipster.operator.crds.gateway.DoneableGateway;
 import tech.jhipster.operator.crds.gateway.Gateway;
@@ -25,32 +44,69 @@ import tech.jhipster.operator.crds.registry.DoneableRegistry;
 import tech.jhipster.operator.crds.registry.Registry;
 import tech.jhipster.operator.crds.registry.RegistryList;
 
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import java.util.function.UnaryOperator;
 
 @Service
 public class AppsOperator {
 
+    private static final String APPLICATION = "Application";
+
     // Is the service On?
     private boolean on = true;
     private boolean initDone = false;
     private boolean crdsFound = false;
+    private boolean runtimeListenersRegistered = false;
 
     private Logger logger = LoggerFactory.getLogger(AppsOperator.class);
     private CustomResourceDefinition microServiceCRD = null;
     private CustomResourceDefinition gatewayCRD = null;
     private CustomResourceDefinition registryCRD = null;
     private CustomResourceDefinition applicationCRD = null;
-    private boolean applicationWatchRegistered = false;
-    private String appsResourceVersion;
-    private String microServicesResourceVersion;
-    private String registriesResourceVersion;
-    private String gatewaysResourceVersion;
 
-    private NonNamespaceOperation<Application, ApplicationList, DoneableApplication, Resource<Application, DoneableApplication>> appCRDClient;
-    private NonNamespaceOperation<MicroService, MicroServiceList, DoneableMicroService, Resource<MicroService, DoneableMicroService>> microServicesCRDClient;
-    private NonNamespaceOperation<Gateway, GatewayList, DoneableGateway, Resource<Gateway, DoneableGateway>> gatewaysCRDClient;
-    private NonNamespaceOperation<Registry, RegistryList, DoneableRegistry, Resource<Registry, DoneableRegistry>> registriesCRDClient;
+    private MixedOperation<Application, ApplicationList, DoneableApplication, Resource<Application, DoneableApplication>> appCRDClient;
+    private MixedOperation<MicroService, MicroServiceList, DoneableMicroService, Resource<MicroService, DoneableMicroService>> microServicesCRDClient;
+    private MixedOperation<Gateway, GatewayList, DoneableGateway, Resource<Gateway, DoneableGateway>> gatewaysCRDClient;
+    private MixedOperation<Registry, RegistryList, DoneableRegistry, Resource<Registry, DoneableRegistry>> registriesCRDClient;
+
+    // Watched namespaces, a null namespace means all namespaces (jhipster.operator.namespaces)
+    private List<String> watchedNamespaces;
+
+    // Local caches for our applications and the resources that they depend on, one per watched namespace
+    private ResourceCacheGroup<Application, ApplicationList> applicationsCache;
+    private ResourceCacheGroup<MicroService, MicroServiceList> microServicesCache;
+    private ResourceCacheGroup<Gateway, GatewayList> gatewaysCache;
+    private ResourceCacheGroup<Registry, RegistryList> registriesCache;
+
+    // Apps (namespace/name) that need to be reconciled, fed by the watches
+    private final WorkQueue reconcileQueue = new WorkQueue();
+    private ExecutorService reconcileWorkers;
+    // Apps that failed to reconcile are retried with an exponential backoff
+    private ExponentialBackoff reconcileBackoff;
+    // Last status written for each app, to avoid writing it again when nothing changed
+    private final StatusWriteTracker statusWrites = new StatusWriteTracker();
+    // Resource versions of our own writes, their watch events are dropped
+    private final OwnWrites ownWrites = new OwnWrites();
+    // Status and owner reference writes, coalesced by resource and flushed in the background
+    private final WriteBehindBuffer writeBehind = new WriteBehindBuffer("cr");
 
 
     @Autowired
@@ -62,7 +118,54 @@ public class AppsOperator {
     @Autowired
     private K8SCoreRuntime k8SCoreRuntime;
 
+    @Autowired
+    private ReplicaCoordinator replicaCoordinator;
+
+    @Autowired
+    private OperatorMetrics operatorMetrics;
+
+    /*
+     * Register the metrics that are computed from the operator state
+     */
+    @PostConstruct
+    public void registerMetrics() {
+        operatorMetrics.functionCounter("jhipster.operator.status.writes", "Application status writes", statusWrites,
+                StatusWriteTracker::getWritesIssued, "result", "issued");
+        operatorMetrics.functionCounter("jhipster.operator.status.writes", "Application status writes", statusWrites,
+                StatusWriteTracker::getWritesSkipped, "result", "skipped");
+        operatorMetrics.gauge("jhipster.operator.writes.pending", "Writes waiting in the write-behind buffer", writeBehind,
+                WriteBehindBuffer::getPending);
+        operatorMetrics.functionCounter("jhipster.operator.writes", "Writes of the write-behind buffer", writeBehind,
+                WriteBehindBuffer::getWritten, "result", "written");
+        operatorMetrics.functionCounter("jhipster.operator.writes", "Writes of the write-behind buffer", writeBehind,
+                WriteBehindBuffer::getCoalesced, "result", "coalesced");
+        operatorMetrics.functionCounter("jhipster.operator.writes", "Writes of the write-behind buffer", writeBehind,
+                WriteBehindBuffer::getFailed, "result", "failed");
+        // The caches are (re)created by init(), they are looked up on every read
+        operatorMetrics.gauge("jhipster.operator.watch.queue.depth", "Watch events waiting to be applied", this,
+                operator -> queueDepth(operator.applicationsCache), "kind", APPLICATION);
+        operatorMetrics.gauge("jhipster.operator.watch.queue.depth", "Watch events waiting to be applied", this,
+                operator -> queueDepth(operator.microServicesCache), "kind", "MicroService");
+        operatorMetrics.gauge("jhipster.operator.watch.queue.depth", "Watch events waiting to be applied", this,
+                operator -> queueDepth(operator.gatewaysCache), "kind", "Gateway");
+        operatorMetrics.gauge("jhipster.operator.watch.queue.depth", "Watch events waiting to be applied", this,
+                operator -> queueDepth(operator.registriesCache), "kind", "Registry");
+        for (AppStatus status : Arrays.asList(AppStatus.HEALTHY, AppStatus.UNHEALTHY, AppStatus.INCOMPLETE)) {
+            operatorMetrics.gauge("jhipster.operator.apps", "Apps by status", appService,
+                    service -> service.countApps(status), "status", status.name());
+        }
+    }
+
+    private static int queueDepth(ResourceCacheGroup<?, ?> caches) {
+        return (caches == null) ? 0 : caches.getCaches().stream().mapToInt(ResourceCache::getQueueDepth).sum();
+    }
+
     public void bootstrap() {
+        if (initDone) {
+            // Already watching, just make sure that we catch up with everything
+            resync();
+            return;
+        }
         crdsFound = areRequiredCRDsPresent();
         if (crdsFound) {
             initDone = init();
@@ -119,18 +222,56 @@ public class AppsOperator {
     /*
      * Init can only be called if all the required CRDs are present
      *  - It creates the CRD clients to be able to watch and execute operations
+     *  - It creates the local caches for MicroServices, Gateways and Registries
+     *  - It starts the K8s Services index used by the health checks
+     *  - It starts the external IP resolver used to build the app URLs
+     *  - It starts the reconcile workers that consume the reconcile queue
      *  - It loads the existing resources (current state in the cluster)
      *  - It register the watches for our CRDs
+     *  - It queues all the existing apps for a first reconciliation
      */
     private boolean init() {
         logger.info("> JHipster K8s Operator is Starting!");
         // Creating CRDs Clients
-        appCRDClient = k8SCoreRuntime.customResourcesClient(applicationCRD, Application.class, ApplicationList.class, DoneableApplication.class).inNamespace(k8SCoreRuntime.getNamespace());
-        microServicesCRDClient = k8SCoreRuntime.customResourcesClient(microServiceCRD, MicroService.class, MicroServiceList.class, DoneableMicroService.class).inNamespace(k8SCoreRuntime.getNamespace());
-        gatewaysCRDClient = k8SCoreRuntime.customResourcesClient(gatewayCRD, Gateway.class, GatewayList.class, DoneableGateway.class).inNamespace(k8SCoreRuntime.getNamespace());
-        registriesCRDClient = k8SCoreRuntime.customResourcesClient(registryCRD, Registry.class, RegistryList.class, DoneableRegistry.class).inNamespace(k8SCoreRuntime.getNamespace());
+        appCRDClient = k8SCoreRuntime.customResourcesClient(applicationCRD, Application.class, ApplicationList.class, DoneableApplication.class);
+        microServicesCRDClient = k8SCoreRuntime.customResourcesClient(microServiceCRD, MicroService.class, MicroServiceList.class, DoneableMicroService.class);
+        gatewaysCRDClient = k8SCoreRuntime.customResourcesClient(gatewayCRD, Gateway.class, GatewayList.class, DoneableGateway.class);
+        registriesCRDClient = k8SCoreRuntime.customResourcesClient(registryCRD, Registry.class, RegistryList.class, DoneableRegistry.class);
+        watchedNamespaces = config.getWatchedNamespaces(k8SCoreRuntime.getNamespace());
+        logger.info("> Watching namespaces: " + (watchedNamespaces.contains(null) ? "ALL" : watchedNamespaces));
+
+        if (reconcileBackoff == null) {
+            reconcileBackoff = new ExponentialBackoff(config.getReconcileBackoffInitial(), config.getReconcileBackoffMax());
+        }
+        writeBehind.start(config.getWriteBehindInterval(), config.getWriteBehindConcurrency());
+
+        // Creating Local Caches (paged list + watch), changes are queued for the apps that depend on them
+        stopCaches();
+        int pageSize = config.getBootstrapPageSize();
+        applicationsCache = createCaches(APPLICATION, applicationCRD, appCRDClient, ApplicationList.class, pageSize, compactor(Application::new));
+        microServicesCache = createCaches("MicroService", microServiceCRD, microServicesCRDClient, MicroServiceList.class, pageSize, compactor(MicroService::new));
+        gatewaysCache = createCaches("Gateway", gatewayCRD, gatewaysCRDClient, GatewayList.class, pageSize, compactor(Gateway::new));
+        registriesCache = createCaches("Registry", registryCRD, registriesCRDClient, RegistryList.class, pageSize, compactor(Registry::new));
+        applicationsCache.addListener(this::onApplicationEvent);
+        microServicesCache.addListener((action, microService) -> onDependencyEvent(DependencyIndex.MICROSERVICE, action, microService));
+        gatewaysCache.addListener((action, gateway) -> onDependencyEvent(DependencyIndex.GATEWAY, action, gateway));
+        registriesCache.addListener((action, registry) -> onDependencyEvent(DependencyIndex.REGISTRY, action, registry));
+        registerRuntimeListeners();
+        // Dependencies are loaded again from the cluster below
+        appService.getDependencyIndex().clearAvailable();
+        k8SCoreRuntime.startServiceIndex(watchedNamespaces);
+        for (String serviceKey : k8SCoreRuntime.getServiceNames()) {
+            String namespace = serviceKey.substring(0, serviceKey.indexOf('/'));
+            String serviceName = serviceKey.substring(serviceKey.indexOf('/') + 1);
+            appService.setDependencyAvailable(DependencyIndex.SERVICE, namespace, serviceName, k8SCoreRuntime.isServiceAvailable(namespace, serviceName));
+        }
+        k8SCoreRuntime.startExternalIPResolver();
 
-        if (loadExistingResources() && watchOurCRDs()) {
+        startReconcileWorkers();
+
+        if (loadExistingResources()) {
+            logger.info("> All CRDs Found and watched, init complete");
+            resync();
             return true;
         }
 
@@ -138,6 +279,21 @@ public class AppsOperator {
 
     }
 
+    /*
+     * Listeners on the K8s Services index and the external IP resolver
+     *  - They outlive the caches, so they are registered once even if init() is retried
+     */
+    private void registerRuntimeListeners() {
+        if (runtimeListenersRegistered) {
+            return;
+        }
+        k8SCoreRuntime.addServiceListener((namespace, serviceName) -> appService.setDependencyAvailable(DependencyIndex.SERVICE, namespace,
+                serviceName, k8SCoreRuntime.isServiceAvailable(namespace, serviceName)).forEach(this::enqueueChangedApp));
+        // App URLs depend on the external IP, all apps need to be reconciled again when it changes
+        k8SCoreRuntime.addExternalIPListener(externalIP -> resync());
+        runtimeListenersRegistered = true;
+    }
+
     /*
      * Check that all the CRDs are found for this operator to work
      */
@@ -149,132 +305,358 @@ public class AppsOperator {
     }
 
     /*
-     * Watch our CRDs
-     *  Register watches if they were not registered yet
+     * Create a paged cache (list + watch) per watched namespace for a kind of resource
      */
-    private boolean watchOurCRDs() {
-        // Watch for our CRDs
-        if (!applicationWatchRegistered) {
-            registerApplicationWatch();
+    private <T extends HasMetadata, L extends KubernetesResourceList, D extends Doneable<T>> ResourceCacheGroup<T, L> createCaches(
+            String kind, CustomResourceDefinition crd, MixedOperation<T, L, D, Resource<T, D>> client, Class<L> listType, int pageSize,
+            UnaryOperator<T> compactor) {
+        ResourceCacheGroup<T, L> caches = new ResourceCacheGroup<>();
+        for (String namespace : watchedNamespaces) {
+            FilterWatchListDeletable<T, L, Boolean, Watch, Watcher<T>> scopedClient = (namespace == null) ? client.inAnyNamespace() : client.inNamespace(namespace);
+            ResourceCache<T, L> cache = new ResourceCache<>(kind + " (" + ((namespace == null) ? "all namespaces" : namespace) + ")", scopedClient,
+                    (limit, continueToken) -> k8SCoreRuntime.listCustomResources(crd, namespace, limit, continueToken, listType), pageSize, compactor,
+                    config.getWatchQueueCapacity());
+            cache.addListener((action, resource) -> operatorMetrics.watchEvent(kind, action));
+            cache.addOverflowListener(() -> operatorMetrics.watchOverflow(kind));
+            caches.add(namespace, cache);
         }
-        if (applicationWatchRegistered) {
-            logger.info("> All CRDs Found, init complete");
-            return true;
-        } else {
-            logger.error("> CRDs missing, check your installation and run init again");
-            return false;
+        return caches;
+    }
+
+    /*
+     * What the caches keep of each resource: identity, resource version, the app label and the owner references
+     *  - That is all that linking the resources to their apps needs, apps are kept as AppState by the AppService
+     *  - The cache listeners still get the whole resource of each event
+     */
+    private static <T extends CustomResource> UnaryOperator<T> compactor(Supplier<T> factory) {
+        return resource -> {
+            ObjectMeta metadata = resource.getMetadata();
+            String appLabel = (metadata.getLabels() == null) ? null : metadata.getLabels().get("app");
+            T compact = factory.get();
+            compact.setApiVersion(intern(resource.getApiVersion()));
+            compact.setKind(intern(resource.getKind()));
+            compact.setMetadata(new ObjectMetaBuilder()
+                    .withName(metadata.getName())
+                    .withNamespace(intern(metadata.getNamespace()))
+                    .withUid(metadata.getUid())
+                    .withResourceVersion(metadata.getResourceVersion())
+                    .withGeneration(metadata.getGeneration())
+                    .withLabels((appLabel == null) ? null : Collections.singletonMap("app", appLabel.intern()))
+                    .withOwnerReferences(metadata.getOwnerReferences())
+                    .build());
+            return compact;
+        };
+    }
+
+    private static String intern(String value) {
+        return (value == null) ? null : value.intern();
+    }
+
+    private void stopCaches() {
+        if (applicationsCache != null) {
+            applicationsCache.stop();
+        }
+        if (microServicesCache != null) {
+            microServicesCache.stop();
+        }
+        if (gatewaysCache != null) {
+            gatewaysCache.stop();
+        }
+        if (registriesCache != null) {
+            registriesCache.stop();
         }
     }
 
     /*
-     * Load existing instances of our CRDs
+     * Load existing instances of our CRDs and start watching them
      *  - This checks the existing resources and make sure that they are loaded correctly
      *  - This also performs the binding of a service to its app
+     *  - The four kinds, in every watched namespace, are loaded concurrently, page by page (jhipster.operator.bootstrap.page-size)
+     *  - Each page is linked by a bounded pool (jhipster.operator.bootstrap.concurrency), listing waits when the pool is busy
      */
     private boolean loadExistingResources() {
-        // Load Existing Applications
-        List<Application> applicationList = appCRDClient.list().getItems();
-        if (!applicationList.isEmpty()) {
-            appsResourceVersion = applicationList.get(0).getMetadata().getResourceVersion();
-            logger.info(">> Applications Resource Version: " + appsResourceVersion);
-            applicationList.forEach(app -> {
-                appService.addApp(app.getMetadata().getName(), app);
-                logger.info("> App " + app.getMetadata().getName() + " found.");
-            });
-
-        }
-        // Load Existing Service As
-        List<MicroService> microServiceList = microServicesCRDClient.list().getItems();
-        if (!microServiceList.isEmpty()) {
-            microServicesResourceVersion = microServiceList.get(0).getMetadata().getResourceVersion();
-            logger.info(">> MicroService Resource Version: " + microServicesResourceVersion);
-            microServiceList.forEach(microService -> {
-                // If it doesn't have owner references we need to set it up at load time
-                MicroService updatedMicroService = checkAndAddOwnerReferences(microService);
-                microServicesCRDClient.createOrReplace(updatedMicroService);
-            });
+        int concurrency = Math.max(1, config.getBootstrapConcurrency());
+        // Apps are listed on their own threads: the other kinds wait for all the apps before linking, they can't block the apps
+        ExecutorService appsListExecutor = Executors.newFixedThreadPool(Math.min(4, applicationsCache.getCaches().size()), namedThreads("bootstrap-list-apps-"));
+        ExecutorService listExecutor = Executors.newFixedThreadPool(4, namedThreads("bootstrap-list-"));
+        ExecutorService linkExecutor = new ThreadPoolExecutor(concurrency, concurrency, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(concurrency), namedThreads("bootstrap-link-"), new ThreadPoolExecutor.CallerRunsPolicy());
+        try {
+            // Load Existing Applications
+            List<CompletableFuture<Void>> loads = new ArrayList<>();
+            for (ResourceCache<Application, ApplicationList> cache : applicationsCache.getCaches()) {
+                loads.add(CompletableFuture.runAsync(() -> cache.start(page -> page.forEach(this::addExistingApp)), appsListExecutor));
+            }
+            CompletableFuture<Void> appsLoaded = CompletableFuture.allOf(loads.toArray(new CompletableFuture[0]));
+            // Load Existing Service As
+            for (ResourceCache<MicroService, MicroServiceList> cache : microServicesCache.getCaches()) {
+                loads.add(CompletableFuture.runAsync(() -> cache.start(
+                        page -> linkPage(DependencyIndex.MICROSERVICE, page, appsLoaded, linkExecutor, microServiceCRD, MicroService.class, microServicesCache)), listExecutor));
+            }
+            // Load Existing Gateways
+            for (ResourceCache<Gateway, GatewayList> cache : gatewaysCache.getCaches()) {
+                loads.add(CompletableFuture.runAsync(() -> cache.start(
+                        page -> linkPage(DependencyIndex.GATEWAY, page, appsLoaded, linkExecutor, gatewayCRD, Gateway.class, gatewaysCache)), listExecutor));
+            }
+            // Load Existing Registries
+            for (ResourceCache<Registry, RegistryList> cache : registriesCache.getCaches()) {
+                loads.add(CompletableFuture.runAsync(() -> cache.start(
+                        page -> linkPage(DependencyIndex.REGISTRY, page, appsLoaded, linkExecutor, registryCRD, Registry.class, registriesCache)), listExecutor));
+            }
+            CompletableFuture.allOf(loads.toArray(new CompletableFuture[0])).join();
+            linkExecutor.shutdown();
+            linkExecutor.awaitTermination(10, TimeUnit.MINUTES);
+            return true;
+        } catch (CompletionException e) {
+            // A list failed, init() is retried by the next bootstrap
+            logger.error("> Loading the existing resources failed", e.getCause());
+            return false;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        } finally {
+            appsListExecutor.shutdownNow();
+            listExecutor.shutdownNow();
+            linkExecutor.shutdownNow();
         }
-        // Load Existing Gateways
-        List<Gateway> gatewayList = gatewaysCRDClient.list().getItems();
-        if (!gatewayList.isEmpty()) {
-            gatewaysResourceVersion = gatewayList.get(0).getMetadata().getResourceVersion();
-            logger.info(">> Gateway Resource Version: " + gatewaysResourceVersion);
-            gatewayList.forEach(gateway -> {
-                // If it doesn't have owner references we need to set it up at load time
-                Gateway updatedGateway = checkAndAddOwnerReferences(gateway);
-                gatewaysCRDClient.createOrReplace(updatedGateway);
+    }
 
-            });
+    private void addExistingApp(Application app) {
+        appService.addApp(AppService.appKey(app), AppState.of(app));
+        // What is stored in the cluster is what was written last, so a restart doesn't rewrite every app
+        recordExistingStatus(app);
+        logger.info("> App " + app.getMetadata().getName() + " found.");
+    }
 
+    private void recordExistingStatus(Application app) {
+        ApplicationStatus status = app.getStatus();
+        if (status != null) {
+            statusWrites.recordExisting(AppService.appKey(app), status.getObservedGeneration(), AppStatus.parse(status.getStatus()), status.getUrl());
         }
-        // Load Existing Registries
-        List<Registry> registriesList = registriesCRDClient.list().getItems();
-        if (!registriesList.isEmpty()) {
-            registriesResourceVersion = registriesList.get(0).getMetadata().getResourceVersion();
-            logger.info(">> Registry Resource Version: " + registriesResourceVersion);
-            registriesList.forEach(registry -> {
-                // If it doesn't have owner references we need to set it up at load time
-                Registry updatedRegistry = checkAndAddOwnerReferences(registry);
-                registriesCRDClient.createOrReplace(updatedRegistry);
-            });
+    }
 
+    /*
+     * Link a page of MicroServices, Gateways or Registries to their apps, once all the apps are loaded
+     *  - The resources are recorded as available in the dependency index right away
+     */
+    private <T extends CustomService> void linkPage(String kind, List<T> page, CompletableFuture<Void> appsLoaded, ExecutorService linkExecutor,
+                                                   CustomResourceDefinition crd, Class<T> type, ResourceCacheGroup<T, ?> cache) {
+        for (T service : page) {
+            appService.setDependencyAvailable(kind, service.getMetadata().getNamespace(), service.getMetadata().getName(), true);
+        }
+        appsLoaded.join();
+        for (T service : page) {
+            linkExecutor.execute(() -> {
+                try {
+                    checkAndAddOwnerReferences(service, crd, type, cache);
+                } catch (Exception e) {
+                    logger.error("> Error linking " + service.getKind() + " " + service.getMetadata().getName(), e);
+                }
+            });
         }
-        return true;
     }
 
+    private static ThreadFactory namedThreads(String prefix) {
+        AtomicInteger count = new AtomicInteger();
+        return r -> new Thread(r, prefix + count.incrementAndGet());
+    }
 
-    private <T extends CustomService> T checkAndAddOwnerReferences(T service) {
-        if (service.getMetadata().getOwnerReferences() != null) {
-            String appName = service.getMetadata().getLabels().get("app");
-            if (appName != null && !appName.isEmpty()) {
-                Application application = appService.getApp(appName);
-                return appService.owns(application, service);
+    /*
+     * Link a resource to the app of its app label
+     *  - With several replicas only the one responsible for the app links it, the others would write the same patch
+     *  - If this replica is not responsible yet, the reconcile of the app links it once it is
+     */
+    private <T extends CustomService> void checkAndAddOwnerReferences(T service, CustomResourceDefinition crd, Class<T> type,
+                                                                      ResourceCacheGroup<T, ?> cache) {
+        Map<String, String> labels = service.getMetadata().getLabels();
+        String appName = (labels == null) ? null : labels.get("app");
+        if (appName != null && !appName.isEmpty()) {
+            AppState application = appService.getApp(service.getMetadata().getNamespace(), appName);
+            if (application != null && replicaCoordinator.isResponsibleFor(application.getKey())) {
+                linkToApp(application, service, crd, type, cache);
             }
         }
-        return service;
     }
 
+    /*
+     * Set the Application as the Owner of a MicroService, Gateway or Registry
+     *  - Nothing is written if the owner references are already there
+     *  - Otherwise only metadata.ownerReferences is patched, the rest of the resource is left untouched
+     *  - The patch goes through the write-behind buffer, it is checked again against the cache when it is flushed
+     *  - The patched resource goes to the cache right away, so the app is not linked again before the watch event arrives
+     */
+    private <T extends CustomService> void linkToApp(AppState application, T service, CustomResourceDefinition crd, Class<T> type,
+                                                     ResourceCacheGroup<T, ?> cache) {
+        String kind = crd.getSpec().getNames().getKind();
+        String namespace = service.getMetadata().getNamespace();
+        String name = service.getMetadata().getName();
+        String writeKey = kind + "/" + ResourceCache.key(namespace, name);
+        if (appService.isOwnedBy(application, service)) {
+            reconcileBackoff.recovered(application.getKey(), writeKey);
+            return;
+        }
+        writeBehind.submit(writeKey, () -> {
+            T current = cache.get(namespace, name);
+            if (current == null || appService.isOwnedBy(application, current)) {
+                reconcileBackoff.recovered(application.getKey(), writeKey);
+                return;
+            }
+            Map<String, Object> patch = Collections.singletonMap("metadata",
+                    Collections.singletonMap("ownerReferences", appService.createOwnerReferencesFromApp(application)));
+            try {
+                T written = k8SCoreRuntime.mergePatchCustomResource(crd, namespace, name, null, patch, type);
+                ownWrites.recordWrite(kind, written);
+                cache.recordWrite(current, written);
+                reconcileBackoff.recovered(application.getKey(), writeKey);
+                logger.info(">> " + kind + " " + name + " linked to App " + application.getName());
+            } catch (KubernetesClientException e) {
+                retryLater(application.getKey(), writeKey, "linking " + kind + " " + name, e);
+            }
+        });
+    }
 
     /*
-     * Register an Application Resource Watch
-     *  - This watch is in charge of adding and removing apps to/from the In memory desired state
+     * A write of the write-behind buffer failed, the app is reconciled again later (with backoff)
+     *  - The app keeps backing off until that write succeeds or is not needed anymore, the reconcile that queues the
+     *    write again succeeds and must not reset the backoff (a write that always fails would be retried every second)
      */
-    private void registerApplicationWatch() {
-        logger.info("> Registering Application CRD Watch");
-        appCRDClient.withResourceVersion(appsResourceVersion).watch(new Watcher<Application>() {
-            @Override
-            public void eventReceived(Watcher.Action action, Application application) {
-                if (action.equals(Action.ADDED)) {
-                    logger.info(">> Adding App: " + application.getMetadata().getName());
-                    appService.addApp(application.getMetadata().getName(), application);
+    private void retryLater(String appKey, String writeKey, String what, KubernetesClientException e) {
+        long delay = reconcileBackoff.nextDelay(appKey, writeKey);
+        logger.error("> Error " + what + " (" + e.getCode() + "): " + e.getMessage() + ", App " + appKey + " will be retried in " + delay + "ms");
+        reconcileQueue.addAfter(appKey, delay);
+    }
 
-                    linkAllApplicationResources(application);
 
-                }
-                if (action.equals(Action.DELETED)) {
-                    logger.info(">> Deleting App: " + application.getMetadata().getName());
-                    appService.removeApp(application.getMetadata().getName());
-                }
-                if (action.equals(Action.MODIFIED)) {
-                    logger.info(">> Modifying App: " + application.getMetadata().getName());
-                    appService.addApp(application.getMetadata().getName(), application);
-                    linkAllApplicationResources(application);
-                }
+    /*
+     * A MicroService, Gateway or Registry changed
+     *  - The dependency index is updated and only the apps that depend on it are queued, plus the app that owns it (app label)
+     *  - The echoes of our owner reference writes change nothing that the apps depend on, they are dropped
+     *  - ERROR events say nothing about the resource, they are ignored
+     */
+    private void onDependencyEvent(String kind, Watcher.Action action, CustomService service) {
+        if (action.equals(Watcher.Action.ERROR) || isEcho(kind, action, service)) {
+            return;
+        }
+        Set<String> appKeys = appService.setDependencyAvailable(kind, service.getMetadata().getNamespace(), service.getMetadata().getName(),
+                !action.equals(Watcher.Action.DELETED));
+        String appName = service.getMetadata().getLabels() == null ? null : service.getMetadata().getLabels().get("app");
+        if (appName != null) {
+            enqueueChangedApp(AppService.appKey(service.getMetadata().getNamespace(), appName));
+        }
+        appKeys.forEach(this::enqueueChangedApp);
+    }
+
+    /*
+     * Something that the app depends on changed, so a failing app is retried right away
+     */
+    private void enqueueChangedApp(String appKey) {
+        reconcileBackoff.forget(appKey);
+        reconcileQueue.add(appKey);
+    }
+
+    /*
+     * Start the reconcile workers, they take app names from the reconcile queue and reconcile them concurrently
+     *  - The reconcile queue never hands the same app to two workers at the same time
+     */
+    private void startReconcileWorkers() {
+        if (reconcileWorkers != null) {
+            return;
+        }
+        int workers = Math.max(1, config.getReconcileWorkers());
+        reconcileWorkers = Executors.newFixedThreadPool(workers, namedThreads("reconcile-worker-"));
+        for (int i = 0; i < workers; i++) {
+            reconcileWorkers.submit(this::processReconcileQueue);
+        }
+        logger.info("> " + workers + " reconcile workers started");
+    }
 
-                if (application.getSpec() == null) {
-                    logger.info("No Spec for resource " + application.getMetadata().getName());
+    private void processReconcileQueue() {
+        while (!Thread.currentThread().isInterrupted()) {
+            String appKey;
+            try {
+                appKey = reconcileQueue.take();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            boolean reconciled = true;
+            try {
+                // With several replicas only the one responsible for the app reconciles it
+                if (on && replicaCoordinator.isResponsibleFor(appKey)) {
+                    long start = System.nanoTime();
+                    String outcome = OperatorMetrics.OUTCOME_ERROR;
+                    try {
+                        reconciled = reconcile(appKey);
+                        outcome = reconciled ? OperatorMetrics.OUTCOME_SUCCESS : OperatorMetrics.OUTCOME_RETRY;
+                    } finally {
+                        operatorMetrics.reconcileFinished(outcome, System.nanoTime() - start);
+                    }
                 }
+            } catch (Exception e) {
+                logger.error("> Error reconciling App " + appKey, e);
+                reconciled = false;
+            } finally {
+                reconcileQueue.done(appKey);
+            }
+            if (reconciled) {
+                reconcileBackoff.succeeded(appKey);
+            } else {
+                long delay = reconcileBackoff.nextDelay(appKey);
+                logger.info("> App " + appKey + " will be retried in " + delay + "ms (failures: " + reconcileBackoff.getFailures(appKey) + ")");
+                reconcileQueue.addAfter(appKey, delay);
             }
+        }
+    }
 
-            @Override
-            public void onClose(KubernetesClientException cause) {
+    /*
+     * Application events, from the Application watch
+     *  - This is in charge of adding and removing apps to/from the In memory desired state
+     *  - Every change is queued for reconciliation
+     *  - The echoes of our status writes are dropped, the status is already recorded and nothing else changed
+     */
+    private void onApplicationEvent(Watcher.Action action, Application application) {
+        if (isEcho(APPLICATION, action, application)) {
+            return;
+        }
+        String appKey = AppService.appKey(application);
+        if (action.equals(Watcher.Action.ADDED)) {
+            logger.info(">> Adding App: " + appKey);
+            appService.addApp(appKey, AppState.of(application));
+            enqueueChangedApp(appKey);
+        }
+        if (action.equals(Watcher.Action.DELETED)) {
+            logger.info(">> Deleting App: " + appKey);
+            appService.removeApp(appKey);
+            appService.forgetHealth(appKey);
+            reconcileBackoff.forget(appKey);
+            statusWrites.forget(appKey);
+        }
+        if (action.equals(Watcher.Action.MODIFIED)) {
+            logger.info(">> Modifying App: " + appKey);
+            AppState previous = appService.addApp(appKey, AppState.of(application));
+            // The status might have been written by another replica, the next write is decided on what is stored now
+            recordExistingStatus(application);
+            // Status updates don't change the generation, only spec changes need to be reconciled
+            if (previous == null || !Objects.equals(previous.getGeneration(), application.getMetadata().getGeneration())) {
+                enqueueChangedApp(appKey);
             }
-        });
-        applicationWatchRegistered = true;
+        }
+
+        if (application.getSpec() == null) {
+            logger.info("No Spec for resource " + application.getMetadata().getName());
+        }
+    }
 
+    private boolean isEcho(String kind, Watcher.Action action, HasMetadata resource) {
+        if (ownWrites.isEcho(kind, action, resource)) {
+            operatorMetrics.echoSuppressed(kind);
+            logger.debug(">> Own write of " + kind + " " + resource.getMetadata().getName() + " ignored");
+            return true;
+        }
+        return false;
     }
 
-    private void linkAllApplicationResources(Application application) {
+    private void linkAllApplicationResources(AppState application) {
         linkMicroServicesToApp(application);
 
         linkRegistryToApp(application);
@@ -282,36 +664,34 @@ public class AppsOperator {
         linkGatewayToApp(application);
     }
 
-    private void linkGatewayToApp(Application application) {
-        String gatewayName = application.getSpec().getGateway();
-        Gateway gateway = gatewaysCRDClient.withName(gatewayName).get();
+    private void linkGatewayToApp(AppState application) {
+        String gatewayName = application.getGateway();
+        Gateway gateway = gatewaysCache.get(application.getNamespace(), gatewayName);
         if (gateway != null) {
-            if (gateway.getMetadata().getLabels().get("app") != null &&
-                    gateway.getMetadata().getLabels().get("app").equals(application.getMetadata().getName())) {
+            if (gateway.getMetadata().getLabels() != null && gateway.getMetadata().getLabels().get("app") != null &&
+                    gateway.getMetadata().getLabels().get("app").equals(application.getName())) {
                 // This just set the Application as the Owner of the Gateway
-                Gateway updatedGateway = appService.owns(application, gateway);
-                gatewaysCRDClient.createOrReplace(updatedGateway);
+                linkToApp(application, gateway, gatewayCRD, Gateway.class, gatewaysCache);
             } else {
-                logger.info("This gateway (" + gateway + ") belongs to a different application"
-                        + gateway.getMetadata().getLabels().get("app"));
+                logger.info("This gateway (" + gateway.getMetadata().getName() + ") belongs to a different application"
+                        + gateway.getMetadata().getLabels());
             }
         } else {
             logger.error("Gateway: " + gatewayName + " doesn't exist!");
         }
     }
 
-    private void linkRegistryToApp(Application application) {
-        String registryName = application.getSpec().getRegistry();
-        Registry registry = registriesCRDClient.withName(registryName).get();
+    private void linkRegistryToApp(AppState application) {
+        String registryName = application.getRegistry();
+        Registry registry = registriesCache.get(application.getNamespace(), registryName);
         if (registry != null) {
-            if (registry.getMetadata().getLabels().get("app") != null &&
-                    registry.getMetadata().getLabels().get("app").equals(application.getMetadata().getName())) {
+            if (registry.getMetadata().getLabels() != null && registry.getMetadata().getLabels().get("app") != null &&
+                    registry.getMetadata().getLabels().get("app").equals(application.getName())) {
                 // This just set the Application as the Owner of the Registry
-                Registry updatedRegistry = appService.owns(application, registry);
-                registriesCRDClient.createOrReplace(updatedRegistry);
+                linkToApp(application, registry, registryCRD, Registry.class, registriesCache);
             } else {
-                logger.info("This registry (" + registry + ") belongs to a different application"
-                        + registry.getMetadata().getLabels().get("app"));
+                logger.info("This registry (" + registry.getMetadata().getName() + ") belongs to a different application"
+                        + registry.getMetadata().getLabels());
             }
         } else {
             logger.error("Registry: " + registryName + " doesn't exist!");
@@ -319,138 +699,148 @@ public class AppsOperator {
 
     }
 
-    private void linkMicroServicesToApp(Application application) {
-        Set<MicroServiceDescr> microservices = application.getSpec().getMicroservices();
-        if (microservices != null && !microservices.isEmpty()) {
-            for (MicroServiceDescr msd : microservices) {
-                MicroService microService = microServicesCRDClient.withName(msd.getName()).get();
-                if (microService != null) {
-                    if (microService.getMetadata().getLabels().get("app") != null &&
-                            microService.getMetadata().getLabels().get("app").equals(application.getMetadata().getName())) {
-                        // This just set the Application as the Owner of the MicroService
-                        MicroService updatedMicroService = appService.owns(application, microService);
-                        microServicesCRDClient.createOrReplace(updatedMicroService);
-                    } else {
-                        logger.debug("This microservice (" + microService + ") belongs to a different application"
-                                + microService.getMetadata().getLabels().get("app"));
-                    }
+    private void linkMicroServicesToApp(AppState application) {
+        for (String microServiceName : application.getMicroservices()) {
+            MicroService microService = microServicesCache.get(application.getNamespace(), microServiceName);
+            if (microService != null) {
+                if (microService.getMetadata().getLabels() != null && microService.getMetadata().getLabels().get("app") != null &&
+                        microService.getMetadata().getLabels().get("app").equals(application.getName())) {
+                    // This just set the Application as the Owner of the MicroService
+                    linkToApp(application, microService, microServiceCRD, MicroService.class, microServicesCache);
                 } else {
-                    logger.error("MicroService: " + msd.getName() + " doesn't exist!");
+                    logger.debug("This microservice (" + microService.getMetadata().getName() + ") belongs to a different application"
+                            + microService.getMetadata().getLabels());
                 }
-
+            } else {
+                logger.error("MicroService: " + microServiceName + " doesn't exist!");
             }
         }
     }
 
 
     /*
-     * Reconcile contains the logic that understand how services relates to applications and the application state
-     *   matches the desired state with current state in K8s
+     * Resync queues every known app for reconciliation
+     *  - The watches queue the apps that changed, this is only a safety net for anything that might have been missed
+     *  - Apps that are backing off are skipped, their retry is already scheduled
+     *  - Apps that another replica is responsible for are skipped
      */
-    public void reconcile() {
-        if (appService.getApps().isEmpty()) {
+    public void resync() {
+        if (appService.getAppsMap().isEmpty()) {
             logger.info("> No Apps found.");
         }
-        // For each App Desired State
-        appService.getAppsMap().keySet().forEach(appName ->
-                {
-                    Application app = appService.getApp(appName);
-                    linkAllApplicationResources(app);
-                    logger.info("> App Found: " + appName + ". Scanning ...");
-                    // Is App Structure ok
-                    if (isApplicationStructureOK(app)) {
-
-                        // Is the APP Healthy??
-                        boolean appHealthy = false;
-                        if (config.isK8sServiceCheckEnabled()) {
-                            appHealthy = appService.isAppHealthy(app, true);
-                        } else {
-                            // If we have K8s services disabled and the structure is ok we will set it as healthy
-                            appHealthy = true;
-                        }
-                        if (appHealthy) {
-                            // YES: Change the state and provide a URL
-                            app.getSpec().getMicroservices().forEach(m -> logger.info("\t> MicroService found: " + m));
-                            app.getSpec().setStatus("HEALTHY");
-                            String url = appService.createAndSetAppURL(app.getMetadata().getName(), app.getSpec().getVersion());
-                            app.getSpec().setUrl(url);
-                            logger.info("\t> App: " + appName + ", status:  HEALTHY, URL: " + url + " \n");
-                        } else {
-                            // NO: Change the state and remove the URL
-                            logger.error("\t > App Name: " + appName + " is down due missing services");
-                            if (app.getSpec().getMicroservices() == null || app.getSpec().getMicroservices().isEmpty()) {
-                                logger.info("\t>App: " + appName + ": No MicroService found. ");
-                            } else {
-                                app.getSpec().getMicroservices().forEach(m -> logger.info("\t> MicroService found: " + m));
-                            }
-                            app.getSpec().setStatus("UNHEALTHY");
-                            app.getSpec().setUrl("N/A");
-                            logger.info("\t> App: " + appName + ", status: UNHEALTHY. \n ");
-                        }
-                        // Notify K8s about the updates required
-                        appCRDClient.createOrReplace(app);
-                    } else {
-                        logger.error("The application " + app.getMetadata().getName() + " structure is not complete please check the resources required by this application");
-                    }
-                }
-        );
-
+        appService.getAppsMap().keySet().stream()
+                .filter(replicaCoordinator::isResponsibleFor)
+                .filter(appKey -> !reconcileBackoff.isBackingOff(appKey))
+                .forEach(reconcileQueue::add);
     }
 
-    private boolean isApplicationStructureOK(Application application) {
-
-        boolean isRegistryDefAvailable = false;
-        boolean isGatewayDefAvailable = false;
-        boolean areMicroServicesAvailable = false;
-
-        Set<MicroServiceDescr> microservices = application.getSpec().getMicroservices();
-        if (microservices != null && !microservices.isEmpty()) {
-            boolean areMicroServicesDefAvailable[] = new boolean[microservices.size()];
-            int microservicesCount = 0;
-            for (MicroServiceDescr msd : microservices) {
-                MicroService microService = microServicesCRDClient.withName(msd.getName()).get();
-                if (microService != null) {
-                    areMicroServicesDefAvailable[microservicesCount] = true;
+    /*
+     * Reconcile contains the logic that understand how services relates to applications and the application state
+     *   matches the desired state with current state in K8s
+     * @return false if the app needs to be retried later
+     */
+    public boolean reconcile(String appKey) {
+        AppState app = appService.getApp(appKey);
+        if (app == null) {
+            logger.info("> App " + appKey + " is gone, nothing to reconcile.");
+            appService.forgetHealth(appKey);
+            return true;
+        }
+        linkAllApplicationResources(app);
+        logger.info("> App Found: " + appKey + ". Scanning ...");
+        // Is App Structure ok
+        if (appService.isAppStructureComplete(app)) {
+
+            // Is the APP Healthy??
+            boolean appHealthy = false;
+            if (config.isK8sServiceCheckEnabled()) {
+                appHealthy = appService.isAppHealthy(app, true);
+            } else {
+                // If we have K8s services disabled and the structure is ok we will set it as healthy
+                appHealthy = true;
+            }
+            AppStatus status;
+            String url;
+            if (appHealthy) {
+                // YES: Change the state and provide a URL
+                app.getMicroservices().forEach(m -> logger.info("\t> MicroService found: " + m));
+                status = AppStatus.HEALTHY;
+                url = appService.createAppURL(app);
+                logger.info("\t> App: " + appKey + ", status:  HEALTHY, URL: " + url + " \n");
+            } else {
+                // NO: Change the state and remove the URL
+                logger.error("\t > App Name: " + appKey + " is down due missing services");
+                if (!app.hasMicroservices()) {
+                    logger.info("\t>App: " + appKey + ": No MicroService found. ");
                 } else {
-                    logger.info("MicroService " + msd.getName() + " not found!");
+                    app.getMicroservices().forEach(m -> logger.info("\t> MicroService found: " + m));
                 }
-                microservicesCount++;
+                status = AppStatus.UNHEALTHY;
+                url = "N/A";
+                logger.info("\t> App: " + appKey + ", status: UNHEALTHY. \n ");
             }
-            areMicroServicesAvailable = appService.checkMicroServicesAvailability(microservices.size(), areMicroServicesDefAvailable);
-        }
-
-        String registryName = application.getSpec().getRegistry();
-        Registry registry = registriesCRDClient.withName(registryName).get();
-        if (registry != null) {
-            isRegistryDefAvailable = true;
+            appService.publishHealth(appKey, status, appHealthy ? url : null);
+            // Notify K8s about the updates required, only if the status or URL changed since our last write
+            //  - A merge patch of the status only, built from the app state, the full Application is not needed
+            //  - Written behind: if the app is reconciled again before the flush, only the last status is written
+            Long generation = app.getGeneration();
+            if (statusWrites.needsWrite(appKey, generation, status, url)) {
+                writeBehind.submit(statusWriteKey(appKey), () -> writeStatus(app, generation, status, url));
+            } else {
+                reconcileBackoff.recovered(appKey, statusWriteKey(appKey));
+                logger.debug("\t> App: " + appKey + " status didn't change, skipping the update. (Skipped: "
+                        + statusWrites.getWritesSkipped() + ", Issued: " + statusWrites.getWritesIssued() + ")");
+            }
+            return true;
         } else {
-            logger.info("Registry " + registryName + " not found!");
+            logger.error("The application " + app.getName() + " structure is not complete please check the resources required by this application. Missing: "
+                    + appService.getDependencyIndex().getMissing(appKey));
+            appService.publishHealth(appKey, AppStatus.INCOMPLETE, null);
+            return false;
         }
+    }
 
-        String gatewayName = application.getSpec().getGateway();
-        Gateway gateway = gatewaysCRDClient.withName(gatewayName).get();
-        if (gateway != null) {
-            isGatewayDefAvailable = true;
-        } else {
-            logger.info("Gateway " + gatewayName + " not found!");
+    /*
+     * Flushed by the write-behind buffer, the same status might have been written since it was queued
+     */
+    private void writeStatus(AppState app, Long generation, AppStatus status, String url) {
+        String writeKey = statusWriteKey(app.getKey());
+        if (statusWrites.isWritten(app.getKey(), generation, status, url)) {
+            reconcileBackoff.recovered(app.getKey(), writeKey);
+            return;
         }
-
-        if (areMicroServicesAvailable && isGatewayDefAvailable && isRegistryDefAvailable) {
-            return true;
+        ApplicationStatus appStatus = new ApplicationStatus(status.name(), url, generation);
+        try {
+            ownWrites.recordWrite(APPLICATION, k8SCoreRuntime.mergePatchCustomResource(applicationCRD, app.getNamespace(), app.getName(),
+                    "status", Collections.singletonMap("status", appStatus), Application.class));
+            statusWrites.recordWrite(app.getKey(), generation, status, url);
+            reconcileBackoff.recovered(app.getKey(), writeKey);
+        } catch (KubernetesClientException e) {
+            retryLater(app.getKey(), writeKey, "writing the status", e);
         }
-
-
-        return false;
     }
 
+    private static String statusWriteKey(String appKey) {
+        return APPLICATION + "/" + appKey;
+    }
 
     /*
-     * Delete a JHipster Application by name
+     * Delete a JHipster Application by name, from the operator namespace
      */
     public void deleteApp(String appName) {
-        Application app = appService.getApp(appName);
+        deleteApp(k8SCoreRuntime.getNamespace(), appName);
+    }
+
+    /*
+     * Delete a JHipster Application by namespace and name
+     */
+    public void deleteApp(String namespace, String appName) {
         //@TODO: delete by API doesn't cascade yet..
-        appCRDClient.delete(app);
+        appCRDClient.inNamespace(namespace).withName(appName).delete();
+    }
+
+    public StatusWriteTracker getStatusWrites() {
+        return statusWrites;
     }
 
     public CustomResourceDefinition getMicroServiceCRD() {
@@ -481,5 +871,17 @@ public class AppsOperator {
         return initDone;
     }
 
+    /*
+     * The writes that are still in the write-behind buffer are flushed before stopping
+     */
+    @PreDestroy
+    public void shutdown() {
+        writeBehind.stop();
+    }
+
+    public WriteBehindBuffer getWriteBehind() {
+        return writeBehind;
+    }
+
 
 }
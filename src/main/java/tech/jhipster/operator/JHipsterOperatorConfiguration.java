@@ -1,14 +1,307 @@
 package tech.jhipster.operator;
 
+import io.fabric8.kubernetes.client.Config;
+import io.fabric8.kubernetes.client.DefaultKubernetesClient;
+import io.fabric8.kubernetes.client.KubernetesClient;
+import io.fabric8.kubernetes.client.utils.HttpClientUtils;
+import okhttp3.OkHttpClient;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import tech.jhipster.operator.core.AdaptiveConcurrencyLimit;
+import tech.jhipster.operator.core.ApiCallMetricsInterceptor;
+import tech.jhipster.operator.core.ConcurrencyLimitInterceptor;
+import tech.jhipster.operator.core.OperatorMetrics;
+import tech.jhipster.operator.core.RateLimitInterceptor;
+import tech.jhipster.operator.core.TokenBucket;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
 
 @Configuration
 public class JHipsterOperatorConfiguration {
-    @Value("k8s.service.checks.enabled")
+
+    // Watches per watched namespace: the 4 CRD caches and the Service index
+    private static final int WATCHES_PER_NAMESPACE = 5;
+
+    // Watches that are not per namespace: the 2 Services (istio-ingressgateway and gateway) of the external IP resolver
+    private static final int CLUSTER_WATCHES = 2;
+
+    @Value("${k8s.service.checks.enabled:false}")
     private boolean k8sServiceCheckEnabled = false;
 
+    @Value("${jhipster.operator.reconcile.workers:4}")
+    private int reconcileWorkers = 4;
+
+    @Value("${jhipster.operator.reconcile.backoff.initial:1000}")
+    private long reconcileBackoffInitial = 1000;
+
+    @Value("${jhipster.operator.reconcile.backoff.max:300000}")
+    private long reconcileBackoffMax = 300000;
+
+    @Value("${jhipster.operator.bootstrap.page-size:500}")
+    private int bootstrapPageSize = 500;
+
+    @Value("${jhipster.operator.bootstrap.concurrency:8}")
+    private int bootstrapConcurrency = 8;
+
+    @Value("${jhipster.operator.leader-election.enabled:false}")
+    private boolean leaderElectionEnabled = false;
+
+    @Value("${jhipster.operator.sharding.enabled:false}")
+    private boolean shardingEnabled = false;
+
+    @Value("${jhipster.operator.coordination.lease-duration:15000}")
+    private long leaseDuration = 15000;
+
+    @Value("${jhipster.operator.coordination.renew-period:5000}")
+    private long renewPeriod = 5000;
+
+    @Value("${jhipster.operator.identity:${POD_NAME:${HOSTNAME:jhipster-operator}}}")
+    private String identity = "jhipster-operator";
+
+    // Namespaces to watch: empty for the operator namespace, * for all namespaces, or a comma separated list
+    @Value("${jhipster.operator.namespaces:}")
+    private String namespaces = "";
+
+    // Every open watch holds one of these, the client default (5) is less than the watches the operator opens
+    // 0 derives it from the watched namespaces and the API concurrency max, a lower value fails the startup
+    @Value("${jhipster.operator.api.max-concurrent-requests-per-host:0}")
+    private int maxConcurrentRequestsPerHost = 0;
+
+    // Client side rate limits of the calls to the API Server (watches excluded), a qps of 0 disables the limit
+    @Value("${jhipster.operator.api.read.qps:200}")
+    private double apiReadQps = 200;
+
+    @Value("${jhipster.operator.api.read.burst:400}")
+    private int apiReadBurst = 400;
+
+    @Value("${jhipster.operator.api.write.qps:100}")
+    private double apiWriteQps = 100;
+
+    @Value("${jhipster.operator.api.write.burst:200}")
+    private int apiWriteBurst = 200;
+
+    // Adaptive limit of the calls in flight to the API Server (watches excluded): it grows while the calls are faster
+    // than the latency threshold (ms) and shrinks when they are slower or the API Server answers 429 or 5xx
+    @Value("${jhipster.operator.api.concurrency.initial:8}")
+    private int apiConcurrencyInitial = 8;
+
+    @Value("${jhipster.operator.api.concurrency.min:1}")
+    private int apiConcurrencyMin = 1;
+
+    @Value("${jhipster.operator.api.concurrency.max:64}")
+    private int apiConcurrencyMax = 64;
+
+    @Value("${jhipster.operator.api.concurrency.latency-threshold:1000}")
+    private long apiConcurrencyLatencyThreshold = 1000;
+
+    // Status and owner reference writes are coalesced by resource and flushed every interval, by this many writers
+    @Value("${jhipster.operator.write-behind.interval:100}")
+    private long writeBehindInterval = 100;
+
+    @Value("${jhipster.operator.write-behind.concurrency:8}")
+    private int writeBehindConcurrency = 8;
+
+    // Watch events waiting to be applied, per cache, when the queue is full the cache lists again
+    @Value("${jhipster.operator.watch.queue-capacity:4096}")
+    private int watchQueueCapacity = 4096;
+
+    // Status stream events waiting to be sent, per subscriber, a subscriber whose queue is full is disconnected
+    @Value("${jhipster.operator.status-stream.queue-capacity:256}")
+    private int statusStreamQueueCapacity = 256;
+
+    // Threads sending the status stream events, and subscribers with events that wait for one of them
+    @Value("${jhipster.operator.status-stream.senders:2}")
+    private int statusStreamSenders = 2;
+
+    @Value("${jhipster.operator.status-stream.dispatch-queue-capacity:1024}")
+    private int statusStreamDispatchQueueCapacity = 1024;
+
+    /*
+     * KubernetesClient used by the operator (replaces the one created by Spring Cloud Kubernetes)
+     *  - Same configuration, but every call to the API Server is recorded by the metrics interceptor
+     *  - Allows enough concurrent requests for all the watches (watches are async calls that never finish)
+     *  - Reads and writes are rate limited, and the calls in flight are under an adaptive limit, shared by everything
+     *    that uses this client
+     */
+    @Bean
+    public KubernetesClient kubernetesClient(Config kubernetesClientConfig, OperatorMetrics metrics) {
+        OkHttpClient httpClient = HttpClientUtils.createHttpClient(kubernetesClientConfig).newBuilder()
+                // Before the metrics interceptor, so the time waited for the rate limiter is not part of the call duration
+                .addInterceptor(new RateLimitInterceptor(tokenBucket(apiReadQps, apiReadBurst), tokenBucket(apiWriteQps, apiWriteBurst), metrics))
+                .addInterceptor(new ConcurrencyLimitInterceptor(apiConcurrencyLimit(metrics)))
+                .addInterceptor(new ApiCallMetricsInterceptor(metrics))
+                .build();
+        int maxRequests = dispatcherMaxRequests();
+        httpClient.dispatcher().setMaxRequestsPerHost(
+                Math.max(kubernetesClientConfig.getMaxConcurrentRequestsPerHost(), maxRequests));
+        httpClient.dispatcher().setMaxRequests(
+                Math.max(httpClient.dispatcher().getMaxRequests(), maxRequests));
+        return new DefaultKubernetesClient(httpClient, kubernetesClientConfig);
+    }
+
+    /*
+     * Requests that the client must be able to run at the same time against the API Server
+     *  - One per open watch (they never finish) plus the calls allowed by the adaptive concurrency limit
+     *  - Without enough of them the OkHttp dispatcher queues the calls behind the watches and the operator stalls
+     */
+    int dispatcherMaxRequests() {
+        int required = getWatchedNamespaces(null).size() * WATCHES_PER_NAMESPACE + CLUSTER_WATCHES + apiConcurrencyMax;
+        if (maxConcurrentRequestsPerHost <= 0) {
+            return required;
+        }
+        if (maxConcurrentRequestsPerHost < required) {
+            throw new IllegalStateException("jhipster.operator.api.max-concurrent-requests-per-host (" + maxConcurrentRequestsPerHost
+                    + ") must be at least " + required + " for the watched namespaces and jhipster.operator.api.concurrency.max");
+        }
+        return maxConcurrentRequestsPerHost;
+    }
+
+    private AdaptiveConcurrencyLimit apiConcurrencyLimit(OperatorMetrics metrics) {
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(apiConcurrencyInitial, apiConcurrencyMin, apiConcurrencyMax,
+                TimeUnit.MILLISECONDS.toNanos(apiConcurrencyLatencyThreshold));
+        metrics.gauge("jhipster.operator.k8s.api.concurrency.limit", "Current limit of the calls in flight to the K8s API Server",
+                limit, AdaptiveConcurrencyLimit::getLimit);
+        metrics.gauge("jhipster.operator.k8s.api.concurrency.in.flight", "Calls in flight to the K8s API Server (watches excluded)",
+                limit, AdaptiveConcurrencyLimit::getInFlight);
+        return limit;
+    }
+
+    private static TokenBucket tokenBucket(double qps, int burst) {
+        return (qps > 0) ? new TokenBucket(qps, burst) : null;
+    }
+
     public boolean isK8sServiceCheckEnabled() {
         return k8sServiceCheckEnabled;
     }
+
+    public int getReconcileWorkers() {
+        return reconcileWorkers;
+    }
+
+    public long getReconcileBackoffInitial() {
+        return reconcileBackoffInitial;
+    }
+
+    public long getReconcileBackoffMax() {
+        return reconcileBackoffMax;
+    }
+
+    public int getBootstrapPageSize() {
+        return bootstrapPageSize;
+    }
+
+    public int getBootstrapConcurrency() {
+        return bootstrapConcurrency;
+    }
+
+    public boolean isLeaderElectionEnabled() {
+        return leaderElectionEnabled;
+    }
+
+    public boolean isShardingEnabled() {
+        return shardingEnabled;
+    }
+
+    public long getLeaseDuration() {
+        return leaseDuration;
+    }
+
+    public long getRenewPeriod() {
+        return renewPeriod;
+    }
+
+    public String getIdentity() {
+        return identity;
+    }
+
+    public String getNamespaces() {
+        return namespaces;
+    }
+
+    /*
+     * Namespaces to watch (jhipster.operator.namespaces)
+     *  - Empty: the operator namespace
+     *  - *: all namespaces, with a single watch per kind (null namespace)
+     *  - Otherwise a comma separated list of namespaces, with a watch per namespace and kind
+     */
+    public List<String> getWatchedNamespaces(String operatorNamespace) {
+        String value = (namespaces == null) ? "" : namespaces.trim();
+        if (value.isEmpty()) {
+            return Collections.singletonList(operatorNamespace);
+        }
+        if (value.equals("*")) {
+            return Collections.singletonList(null);
+        }
+        List<String> result = new ArrayList<>();
+        for (String namespace : value.split(",")) {
+            if (!namespace.trim().isEmpty() && !result.contains(namespace.trim())) {
+                result.add(namespace.trim());
+            }
+        }
+        return result;
+    }
+
+    public int getMaxConcurrentRequestsPerHost() {
+        return maxConcurrentRequestsPerHost;
+    }
+
+    public double getApiReadQps() {
+        return apiReadQps;
+    }
+
+    public int getApiReadBurst() {
+        return apiReadBurst;
+    }
+
+    public double getApiWriteQps() {
+        return apiWriteQps;
+    }
+
+    public int getApiWriteBurst() {
+        return apiWriteBurst;
+    }
+
+    public int getApiConcurrencyInitial() {
+        return apiConcurrencyInitial;
+    }
+
+    public int getApiConcurrencyMin() {
+        return apiConcurrencyMin;
+    }
+
+    public int getApiConcurrencyMax() {
+        return apiConcurrencyMax;
+    }
+
+    public long getApiConcurrencyLatencyThreshold() {
+        return apiConcurrencyLatencyThreshold;
+    }
+
+    public long getWriteBehindInterval() {
+        return writeBehindInterval;
+    }
+
+    public int getWriteBehindConcurrency() {
+        return writeBehindConcurrency;
+    }
+
+    public int getWatchQueueCapacity() {
+        return watchQueueCapacity;
+    }
+
+    public int getStatusStreamQueueCapacity() {
+        return statusStreamQueueCapacity;
+    }
+
+    public int getStatusStreamSenders() {
+        return statusStreamSenders;
+    }
+
+    public int getStatusStreamDispatchQueueCapacity() {
+        return statusStreamDispatchQueueCapacity;
+    }
 }
@@ -8,6 +8,7 @@ import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.cloud.client.discovery.EnableDiscoveryClient;
 import org.springframework.scheduling.annotation.EnableScheduling;
 import org.springframework.scheduling.annotation.Scheduled;
+import tech.jhipster.operator.core.ReplicaCoordinator;
 
 @EnableDiscoveryClient
 @SpringBootApplication
@@ -18,6 +19,9 @@ public class MyApplication {
     @Autowired
     private AppsOperator appsOperator;
 
+    @Autowired
+    private ReplicaCoordinator replicaCoordinator;
+
 
     public static void main(String[] args) {
         SpringApplication.run(MyApplication.class,
@@ -25,18 +29,38 @@ public class MyApplication {
     }
 
 
+    /*
+     * Bootstrap the operator until all the required CRDs are found
+     *  - After that, changes are reconciled as they are watched
+     */
     @Scheduled(fixedDelay = 10000)
+    public void bootstrapLoop() {
+        if (appsOperator.isOn() && !appsOperator.isInitDone()) {
+            logger.info("> JHipster Operator Bootstrapping ... ");
+            appsOperator.bootstrap();
+        }
+    }
+
+    /*
+     * Safety resync: queue every app for reconciliation in case that a watch event was missed
+     */
+    @Scheduled(initialDelayString = "${jhipster.operator.resync.period:300000}", fixedDelayString = "${jhipster.operator.resync.period:300000}")
     public void reconcileLoop() {
-        if (appsOperator.isOn()) {
-            if (appsOperator.isInitDone()) {
-                logger.info("+ --------------------- RECONCILE LOOP -------------------- + ");
-                appsOperator.reconcile();
-                logger.info("+ --------------------- END RECONCILE  -------------------- +\n\n\n ");
-            } else {
-                // Bootstrap
-                logger.info("> JHipster Operator Bootstrapping ... ");
-                appsOperator.bootstrap();
-            }
+        if (appsOperator.isOn() && appsOperator.isInitDone()) {
+            logger.info("+ --------------------- RESYNC LOOP -------------------- + ");
+            appsOperator.resync();
+        }
+    }
+
+    /*
+     * Renew the leader lease and the replica heartbeat
+     *  - When this replica becomes (or stops being) responsible for some apps, all the apps are resynced
+     *  - The scheduler has a thread per loop (spring.task.scheduling.pool.size), the renewal doesn't wait for the other loops
+     */
+    @Scheduled(fixedDelayString = "${jhipster.operator.coordination.renew-period:5000}")
+    public void coordinationLoop() {
+        if (replicaCoordinator.renew() && appsOperator.isInitDone()) {
+            appsOperator.resync();
         }
     }
 
@@ -0,0 +1,82 @@
+package tech.jhipster.operator.app;
+
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+
+/*
+ * Health (status and URL) of every app, as computed by the last reconcile of each one
+ *  - A reconcile updates it in O(1), nothing is copied or sorted on the write path
+ *  - Readers get an immutable AppHealthSnapshot, built by the first read after a change and shared until the next one
+ *  - The number of apps per status is kept on every change, counting doesn't need a snapshot
+ */
+public class AppHealth {
+
+    private final Map<String, AppStatus> statuses = new HashMap<>();
+    // Apps without a URL are not in this map
+    private final Map<String, String> urls = new HashMap<>();
+    private final Map<AppStatus, Integer> counts = new EnumMap<>(AppStatus.class);
+    // Null when a change was made since it was built
+    private volatile AppHealthSnapshot snapshot = AppHealthSnapshot.EMPTY;
+
+    /*
+     * @return true if the status or the URL of the app changed
+     */
+    public synchronized boolean put(String appKey, AppStatus status, String url) {
+        AppStatus previous = statuses.get(appKey);
+        if (previous == status && Objects.equals(urls.get(appKey), url)) {
+            return false;
+        }
+        statuses.put(appKey, status);
+        if (previous != status) {
+            if (previous != null) {
+                counts.merge(previous, -1, Integer::sum);
+            }
+            counts.merge(status, 1, Integer::sum);
+        }
+        if (url != null) {
+            urls.put(appKey, url);
+        } else {
+            urls.remove(appKey);
+        }
+        snapshot = null;
+        return true;
+    }
+
+    /*
+     * @return true if the app was known
+     */
+    public synchronized boolean remove(String appKey) {
+        AppStatus previous = statuses.remove(appKey);
+        if (previous == null) {
+            return false;
+        }
+        counts.merge(previous, -1, Integer::sum);
+        urls.remove(appKey);
+        snapshot = null;
+        return true;
+    }
+
+    public synchronized String getUrl(String appKey) {
+        return urls.get(appKey);
+    }
+
+    public synchronized int count(AppStatus status) {
+        return counts.getOrDefault(status, 0);
+    }
+
+    public AppHealthSnapshot snapshot() {
+        AppHealthSnapshot current = snapshot;
+        if (current != null) {
+            return current;
+        }
+        synchronized (this) {
+            if (snapshot == null) {
+                snapshot = new AppHealthSnapshot(new HashMap<>(statuses), new HashMap<>(urls));
+            }
+            return snapshot;
+        }
+    }
+
+}
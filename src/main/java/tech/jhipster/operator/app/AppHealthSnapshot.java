@@ -0,0 +1,60 @@
+package tech.jhipster.operator.app;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/*
+ * Immutable view of the health (status and URL) of every app, as computed by the last reconcile of each one
+ *  - Built by AppHealth when it is read after a change, readers never see a partial update
+ *  - The list of healthy apps and the number of apps per status are computed once per snapshot, not per read
+ */
+public final class AppHealthSnapshot {
+
+    public static final AppHealthSnapshot EMPTY = new AppHealthSnapshot(Collections.emptyMap(), Collections.emptyMap());
+
+    private final Map<String, AppStatus> statuses;
+    // Apps without a URL are not in this map
+    private final Map<String, String> urls;
+    private final List<String> healthyApps;
+    private final Map<AppStatus, Integer> counts;
+
+    AppHealthSnapshot(Map<String, AppStatus> statuses, Map<String, String> urls) {
+        this.statuses = Collections.unmodifiableMap(statuses);
+        this.urls = Collections.unmodifiableMap(urls);
+        List<String> healthy = new ArrayList<>();
+        Map<AppStatus, Integer> byStatus = new EnumMap<>(AppStatus.class);
+        statuses.forEach((appName, status) -> {
+            if (status == AppStatus.HEALTHY) {
+                healthy.add(appName);
+            }
+            byStatus.merge(status, 1, Integer::sum);
+        });
+        Collections.sort(healthy);
+        this.healthyApps = Collections.unmodifiableList(healthy);
+        this.counts = Collections.unmodifiableMap(byStatus);
+    }
+
+    public boolean contains(String appName) {
+        return statuses.containsKey(appName);
+    }
+
+    public List<String> getHealthyApps() {
+        return healthyApps;
+    }
+
+    public Map<String, AppStatus> getStatuses() {
+        return statuses;
+    }
+
+    public String getUrl(String appName) {
+        return urls.get(appName);
+    }
+
+    public int count(AppStatus status) {
+        return counts.getOrDefault(status, 0);
+    }
+
+}
@@ -1,6 +1,5 @@
 package tech.jhipster.operator.app;
 
-import io.fabric8.kubernetes.api.model.ObjectMeta;
 import io.fabric8.kubernetes.api.model.OwnerReference;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -8,22 +7,26 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import tech.jhipster.operator.JHipsterOperatorConfiguration;
 import tech.jhipster.operator.core.K8SCoreRuntime;
+import tech.jhipster.operator.core.ResourceCache;
 import tech.jhipster.operator.crds.app.Application;
 import tech.jhipster.operator.crds.app.CustomService;
-import tech.jhipster.operator.crds.app.MicroServiceDescr;
 import tech.jhipster.operator.crds.gateway.Gateway;
 import tech.jhipster.operator.crds.microservice.MicroService;
 import tech.jhipster.operator.crds.registry.Registry;
 
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.stream.Collectors;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
 
 @Service
 public class AppService {
     private Logger logger = LoggerFactory.getLogger(AppService.class);
-    private Map<String, Application> apps = new ConcurrentHashMap<>();
-    private Map<String, String> appsUrls = new HashMap<>();
+    // Apps are keyed by namespace/name, their URLs are in the health snapshot
+    private Map<String, AppState> apps = new ConcurrentHashMap<>();
+    private final DependencyIndex dependencyIndex = new DependencyIndex();
+    private final AppHealth health = new AppHealth();
+    private final List<Consumer<AppStatusEvent>> healthListeners = new CopyOnWriteArrayList<>();
 
     @Autowired
     private K8SCoreRuntime k8SCoreRuntime;
@@ -33,74 +36,66 @@ public class AppService {
 
     /*
      * Add the logic to define what are the rules for your application to be UP or DOWN
+     *  - An app is healthy when the K8s Services for its gateway, registry and microservices exist
+     *  - This is an O(1) check on the dependency index counters, the missing Services are only listed when logging
      */
-    public boolean isAppHealthy(Application app, boolean log) {
-
-        String gateway = app.getSpec().getGateway();
-        if (!k8SCoreRuntime.isServiceAvailable(gateway)) {
-            logger.error("Service: " + gateway + " doesn't exist. ");
-            return false;
-        }
-        String registry = app.getSpec().getRegistry();
-        if (!k8SCoreRuntime.isServiceAvailable(registry)) {
-            logger.error("Service: " + registry + " doesn't exist. ");
-            return false;
-        }
-        Set<MicroServiceDescr> microservices = app.getSpec().getMicroservices();
-        for (MicroServiceDescr microServiceDescr : microservices) {
-            if (!k8SCoreRuntime.isServiceAvailable(microServiceDescr.getServiceName())) {
-                logger.error("Service: " + microServiceDescr.getServiceName() + " doesn't exist. ");
-                return false;
-            }
+    public boolean isAppHealthy(AppState app, boolean log) {
+        String appKey = app.getKey();
+        if (dependencyIndex.getMissingServices(appKey) == 0) {
+            return true;
         }
-
-
-        return true;
-    }
-
-    public boolean checkMicroServicesAvailability(int size, boolean[] microServicesAvailable) {
-        if (microServicesAvailable.length == size && microServicesAvailable.length > 0) {
-            for (boolean a : microServicesAvailable) {
-                if (!a) {
-                    return false;
+        if (log) {
+            for (String missing : dependencyIndex.getMissing(appKey)) {
+                if (missing.startsWith(DependencyIndex.SERVICE + "/")) {
+                    logger.error("Service: " + missing.substring(DependencyIndex.SERVICE.length() + 1) + " doesn't exist. ");
                 }
             }
-            return true;
         }
         return false;
     }
 
-
     /*
-     * Add CustomService to Application and set up the owner references
-     * @return the modified CustomService resource
+     * An app structure is complete when it has microservices and all its MicroService, Gateway and Registry resources exist
      */
-    public <T extends CustomService> T owns(Application application, T service) {
-
-        if (application != null) {
-            //Set OwnerReferences: the Application Owns the MicroService
-            List<OwnerReference> ownerReferencesFromApp = createOwnerReferencesFromApp(application);
-            ObjectMeta objectMetaMicroService = service.getMetadata();
-            objectMetaMicroService.setOwnerReferences(ownerReferencesFromApp);
-            service.setMetadata(objectMetaMicroService);
-
+    public boolean isAppStructureComplete(AppState app) {
+        return app.hasMicroservices() && dependencyIndex.getMissingStructure(app.getKey()) == 0;
+    }
 
+    /*
+     * Check if the CustomService already has exactly the owner references that the Application would set
+     */
+    public boolean isOwnedBy(AppState application, CustomService service) {
+        List<OwnerReference> existing = service.getMetadata().getOwnerReferences();
+        List<OwnerReference> expected = createOwnerReferencesFromApp(application);
+        if (existing == null || existing.size() != expected.size()) {
+            return false;
         }
-
-        return service;
+        for (int i = 0; i < expected.size(); i++) {
+            OwnerReference e = expected.get(i);
+            OwnerReference o = existing.get(i);
+            if (!Objects.equals(e.getUid(), o.getUid()) ||
+                    !Objects.equals(e.getName(), o.getName()) ||
+                    !Objects.equals(e.getKind(), o.getKind()) ||
+                    !Objects.equals(e.getApiVersion(), o.getApiVersion()) ||
+                    !Objects.equals(e.getController(), o.getController()) ||
+                    !Objects.equals(e.getBlockOwnerDeletion(), o.getBlockOwnerDeletion())) {
+                return false;
+            }
+        }
+        return true;
     }
 
 
     /*
      * Create owner references for modules of an application
      */
-    private List<OwnerReference> createOwnerReferencesFromApp(Application app) {
-        if (app.getMetadata().getUid() == null || app.getMetadata().getUid().isEmpty()) {
+    public List<OwnerReference> createOwnerReferencesFromApp(AppState app) {
+        if (app.getUid() == null || app.getUid().isEmpty()) {
             throw new IllegalStateException("The app needs to be saved first, the UUID needs to be present.");
         }
         OwnerReference ownerReference = new OwnerReference();
-        ownerReference.setUid(app.getMetadata().getUid());
-        ownerReference.setName(app.getMetadata().getName());
+        ownerReference.setUid(app.getUid());
+        ownerReference.setName(app.getName());
         ownerReference.setKind(app.getKind());
         ownerReference.setController(true);
         ownerReference.setBlockOwnerDeletion(true);
@@ -110,42 +105,145 @@ public class AppService {
 
     }
 
+    /*
+     * Healthy apps, as published by the last reconcile of each app
+     *  - Bare app names when a single namespace is watched, as before the apps were keyed by namespace
+     *  - namespace/name when several namespaces are watched, since the same app name can be in more than one of them
+     *  - No calls are made to the K8s API Server here, this is served from the current health snapshot
+     */
     public List<String> getApps() {
-        return apps.values().stream()
-                .filter(app -> isAppHealthy(app, false))
-                .map(a -> a.getMetadata().getName())
-                .collect(Collectors.toList());
+        List<String> healthyApps = health.snapshot().getHealthyApps();
+        if (!isSingleNamespaceWatched()) {
+            return healthyApps;
+        }
+        List<String> names = new ArrayList<>(healthyApps.size());
+        for (String appKey : healthyApps) {
+            names.add(appKey.substring(appKey.indexOf('/') + 1));
+        }
+        return names;
+    }
+
+    /*
+     * Healthy apps (namespace/name), whatever the namespaces watched
+     */
+    public List<String> getQualifiedApps() {
+        return health.snapshot().getHealthyApps();
+    }
+
+    private boolean isSingleNamespaceWatched() {
+        List<String> namespaces = config.getWatchedNamespaces(k8SCoreRuntime.getNamespace());
+        return namespaces.size() == 1 && namespaces.get(0) != null;
+    }
+
+    /*
+     * Publish the health computed by a reconcile, readers see the new value atomically
+     *  - Listeners are only notified if the status or the URL of the app changed
+     */
+    public void publishHealth(String appKey, AppStatus status, String url) {
+        if (health.put(appKey, status, url)) {
+            notifyHealthListeners(new AppStatusEvent(appKey, status.name(), url));
+        }
+    }
+
+    public void forgetHealth(String appKey) {
+        if (health.remove(appKey)) {
+            notifyHealthListeners(new AppStatusEvent(appKey, AppStatusEvent.DELETED, null));
+        }
+    }
+
+    /*
+     * Listeners are called by the thread that published the change (a reconcile worker), they must not block
+     */
+    public void addHealthListener(Consumer<AppStatusEvent> listener) {
+        healthListeners.add(listener);
+    }
+
+    private void notifyHealthListeners(AppStatusEvent event) {
+        for (Consumer<AppStatusEvent> listener : healthListeners) {
+            try {
+                listener.accept(event);
+            } catch (Exception e) {
+                logger.error("> Health listener failed for " + event, e);
+            }
+        }
+    }
+
+    public AppHealthSnapshot getHealthSnapshot() {
+        return health.snapshot();
+    }
+
+    /*
+     * Number of apps with a status, without building a snapshot
+     */
+    public int countApps(AppStatus status) {
+        return health.count(status);
+    }
+
+    /*
+     * Record that a dependency (MicroService, Gateway, Registry or K8s Service) exists or not
+     * @return the apps that depend on it
+     */
+    public Set<String> setDependencyAvailable(String kind, String namespace, String name, boolean exists) {
+        return dependencyIndex.setAvailable(kind, namespace, name, exists);
+    }
+
+    /*
+     * Find the apps that depend on a MicroService, Gateway, Registry or K8s Service
+     */
+    public Set<String> findAppsDependingOn(String kind, String namespace, String name) {
+        return dependencyIndex.getDependents(kind, namespace, name);
+    }
+
+    public DependencyIndex getDependencyIndex() {
+        return dependencyIndex;
+    }
+
+    /*
+     * @return the previous version of the app, if there was one
+     */
+    public AppState addApp(String appKey, AppState app) {
+        dependencyIndex.putApp(appKey, app);
+        return apps.put(appKey, app);
     }
 
-    public void addApp(String appName, Application app) {
-        apps.put(appName, app);
+    public AppState removeApp(String appKey) {
+        dependencyIndex.removeApp(appKey);
+        return apps.remove(appKey);
     }
 
-    public Application removeApp(String appName) {
-        return apps.remove(appName);
+    public AppState getApp(String appKey) {
+        return apps.get(appKey);
     }
 
-    public Application getApp(String appName) {
-        return apps.get(appName);
+    public AppState getApp(String namespace, String appName) {
+        return apps.get(appKey(namespace, appName));
     }
 
-    public String getAppUrl(String appName) {
-        return appsUrls.get(appName);
+    /*
+     * URL of a healthy app, null otherwise
+     */
+    public String getAppUrl(String appKey) {
+        return health.getUrl(appKey);
     }
 
-    public String createAndSetAppURL(String appName, String appVersion) {
+    public String createAppURL(AppState app) {
         String externalIp = k8SCoreRuntime.findExternalIP();
-        String url = "http://" + externalIp + "/apps/" + appName + "/" + appVersion + "/";
-        appsUrls.put(appName, url);
-        return url;
+        return "http://" + externalIp + "/apps/" + app.getName() + "/" + app.getVersion() + "/";
     }
 
-    public Map<String, Application> getAppsMap() {
-        return apps;
+    /*
+     * Apps are keyed by namespace/name, so apps with the same name in different namespaces don't collide
+     */
+    public static String appKey(String namespace, String appName) {
+        return ResourceCache.key(namespace, appName);
     }
 
-    public Map<String, String> getAppsUrls() {
-        return appsUrls;
+    public static String appKey(Application app) {
+        return appKey(app.getMetadata().getNamespace(), app.getMetadata().getName());
+    }
+
+    public Map<String, AppState> getAppsMap() {
+        return apps;
     }
 
     public void registerCustomResourcesForRuntime() {
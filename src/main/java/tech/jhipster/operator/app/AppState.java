@@ -0,0 +1,133 @@
+package tech.jhipster.operator.app;
+
+import tech.jhipster.operator.crds.app.Application;
+import tech.jhipster.operator.crds.app.MicroServiceDescr;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+
+/*
+ * What the operator keeps in memory for an app, instead of the whole Application resource
+ *  - Only what reconcile needs: identity (for the owner references), generation, version (for the URL) and dependencies
+ *  - Names are interned, the same namespace, kind or dependency name is shared by every app that uses it
+ *  - Built from the Application of a watch event, which is not kept; a new AppState replaces the old one on every change
+ *  - Writes are JSON merge patches built from this state, the full Application is never needed to write
+ */
+public final class AppState {
+
+    private static final String[] NONE = new String[0];
+
+    private final String namespace;
+    private final String name;
+    private final String uid;
+    private final String apiVersion;
+    private final String kind;
+    private final Long generation;
+    private final boolean hasSpec;
+    private final String version;
+    private final String gateway;
+    private final String registry;
+    // MicroService resource names and the K8s Service name of each one, by position
+    private final String[] microservices;
+    private final String[] microserviceServices;
+
+    private AppState(Application app) {
+        this.namespace = intern(app.getMetadata().getNamespace());
+        this.name = intern(app.getMetadata().getName());
+        this.uid = app.getMetadata().getUid();
+        this.apiVersion = intern(app.getApiVersion());
+        this.kind = intern(app.getKind());
+        this.generation = app.getMetadata().getGeneration();
+        this.hasSpec = app.getSpec() != null;
+        this.version = hasSpec ? intern(app.getSpec().getVersion()) : null;
+        this.gateway = hasSpec ? intern(app.getSpec().getGateway()) : null;
+        this.registry = hasSpec ? intern(app.getSpec().getRegistry()) : null;
+        Set<MicroServiceDescr> descriptors = hasSpec ? app.getSpec().getMicroservices() : null;
+        if (descriptors == null || descriptors.isEmpty()) {
+            this.microservices = NONE;
+            this.microserviceServices = NONE;
+        } else {
+            this.microservices = new String[descriptors.size()];
+            this.microserviceServices = new String[descriptors.size()];
+            int i = 0;
+            for (MicroServiceDescr descriptor : descriptors) {
+                microservices[i] = intern(descriptor.getName());
+                microserviceServices[i] = intern(descriptor.getServiceName());
+                i++;
+            }
+        }
+    }
+
+    public static AppState of(Application app) {
+        return new AppState(app);
+    }
+
+    private static String intern(String value) {
+        return (value == null) ? null : value.intern();
+    }
+
+    public String getKey() {
+        return AppService.appKey(namespace, name);
+    }
+
+    public String getNamespace() {
+        return namespace;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public String getUid() {
+        return uid;
+    }
+
+    public String getApiVersion() {
+        return apiVersion;
+    }
+
+    public String getKind() {
+        return kind;
+    }
+
+    public Long getGeneration() {
+        return generation;
+    }
+
+    public boolean hasSpec() {
+        return hasSpec;
+    }
+
+    public String getVersion() {
+        return version;
+    }
+
+    public String getGateway() {
+        return gateway;
+    }
+
+    public String getRegistry() {
+        return registry;
+    }
+
+    public List<String> getMicroservices() {
+        return Collections.unmodifiableList(Arrays.asList(microservices));
+    }
+
+    public List<String> getMicroserviceServices() {
+        return Collections.unmodifiableList(Arrays.asList(microserviceServices));
+    }
+
+    public boolean hasMicroservices() {
+        return microservices.length > 0;
+    }
+
+    @Override
+    public String toString() {
+        return "AppState{" + namespace + "/" + name + ", generation=" + generation + ", version=" + version
+                + ", gateway=" + gateway + ", registry=" + registry + ", microservices=" + Arrays.toString(microservices) + "}";
+    }
+
+}
@@ -0,0 +1,27 @@
+package tech.jhipster.operator.app;
+
+/*
+ * Status of an app, as computed by its reconcile
+ *  - The status is written to the cluster as a string (ApplicationStatus), anything that is not known is UNKNOWN
+ */
+public enum AppStatus {
+
+    HEALTHY,
+    UNHEALTHY,
+    // The app structure is not complete (missing MicroService, Gateway or Registry resources)
+    INCOMPLETE,
+    UNKNOWN;
+
+    public static AppStatus parse(String status) {
+        if (status == null) {
+            return UNKNOWN;
+        }
+        for (AppStatus value : values()) {
+            if (value.name().equals(status)) {
+                return value;
+            }
+        }
+        return UNKNOWN;
+    }
+
+}
@@ -0,0 +1,38 @@
+package tech.jhipster.operator.app;
+
+/*
+ * A change in the status or URL of an app, as published by its reconcile
+ *  - status is one of the AppHealthSnapshot statuses, or DELETED when the app is gone
+ *  - url is null when the app has no URL (not healthy)
+ */
+public final class AppStatusEvent {
+
+    public static final String DELETED = "DELETED";
+
+    private final String app;
+    private final String status;
+    private final String url;
+
+    public AppStatusEvent(String app, String status, String url) {
+        this.app = app;
+        this.status = status;
+        this.url = url;
+    }
+
+    public String getApp() {
+        return app;
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    public String getUrl() {
+        return url;
+    }
+
+    @Override
+    public String toString() {
+        return "AppStatusEvent{app='" + app + "', status='" + status + "', url='" + url + "'}";
+    }
+}
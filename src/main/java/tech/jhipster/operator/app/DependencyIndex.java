@@ -0,0 +1,175 @@
+package tech.jhipster.operator.app;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/*
+ * Reverse index from the resources that apps depend on to the apps that depend on them
+ *  - Dependencies are keyed by kind, namespace and name: MicroService, Gateway and Registry resources, and K8s Services
+ *  - Apps are keyed by namespace/name, an app only depends on resources in its own namespace
+ *  - It is updated when apps are added, modified or removed, and when a dependency appears or disappears
+ *  - Each app keeps a count of missing resources (structure) and missing K8s Services, so checking an app is O(1)
+ *  - Dependency keys are interned and kept per app in an array, every structure shares the same key instances
+ */
+public class DependencyIndex {
+
+    public static final String MICROSERVICE = "MicroService";
+    public static final String GATEWAY = "Gateway";
+    public static final String REGISTRY = "Registry";
+    public static final String SERVICE = "Service";
+
+    private static final String[] NONE = new String[0];
+
+    // Dependency key -> the apps (namespace/name) that depend on it
+    private final Map<String, Set<String>> dependents = new HashMap<>();
+    // App (namespace/name) -> dependency keys
+    private final Map<String, String[]> dependencies = new HashMap<>();
+    // Dependency keys that exist in the cluster
+    private final Set<String> available = new HashSet<>();
+    private final Map<String, Integer> missingStructure = new ConcurrentHashMap<>();
+    private final Map<String, Integer> missingServices = new ConcurrentHashMap<>();
+
+    public static String key(String kind, String namespace, String name) {
+        return kind + "/" + namespace + "/" + name;
+    }
+
+    /*
+     * Add or replace the dependencies of an app, its missing counters are computed again
+     */
+    public synchronized void putApp(String appName, AppState app) {
+        String[] next = dependenciesOf(app);
+        Set<String> nextKeys = new HashSet<>(Arrays.asList(next));
+        for (String key : dependencies.getOrDefault(appName, NONE)) {
+            if (!nextKeys.contains(key)) {
+                removeDependent(key, appName);
+            }
+        }
+        for (String key : next) {
+            dependents.computeIfAbsent(key, k -> new HashSet<>(2)).add(appName);
+        }
+        dependencies.put(appName, next);
+        recount(appName);
+    }
+
+    public synchronized void removeApp(String appName) {
+        String[] previous = dependencies.remove(appName);
+        if (previous != null) {
+            for (String key : previous) {
+                removeDependent(key, appName);
+            }
+        }
+        missingStructure.remove(appName);
+        missingServices.remove(appName);
+    }
+
+    /*
+     * Record that a dependency exists (or not) in the cluster
+     *  - The missing counters of the apps that depend on it are updated incrementally
+     * @return the apps that depend on it
+     */
+    public synchronized Set<String> setAvailable(String kind, String namespace, String name, boolean exists) {
+        String key = key(kind, namespace, name);
+        boolean changed = exists ? available.add(key.intern()) : available.remove(key);
+        Set<String> apps = dependents.getOrDefault(key, Collections.emptySet());
+        if (changed) {
+            Map<String, Integer> counters = SERVICE.equals(kind) ? missingServices : missingStructure;
+            int delta = exists ? -1 : 1;
+            for (String appName : apps) {
+                counters.merge(appName, delta, Integer::sum);
+            }
+        }
+        return new HashSet<>(apps);
+    }
+
+    /*
+     * Forget which dependencies exist, used before loading them again from the cluster
+     */
+    public synchronized void clearAvailable() {
+        available.clear();
+        dependencies.keySet().forEach(this::recount);
+    }
+
+    public synchronized Set<String> getDependents(String kind, String namespace, String name) {
+        return new HashSet<>(dependents.getOrDefault(key(kind, namespace, name), Collections.emptySet()));
+    }
+
+    public int getMissingStructure(String appName) {
+        return missingStructure.getOrDefault(appName, 0);
+    }
+
+    public int getMissingServices(String appName) {
+        return missingServices.getOrDefault(appName, 0);
+    }
+
+    /*
+     * @return the dependency keys of the app that don't exist in the cluster
+     */
+    public synchronized List<String> getMissing(String appName) {
+        List<String> missing = new ArrayList<>();
+        for (String key : dependencies.getOrDefault(appName, NONE)) {
+            if (!available.contains(key)) {
+                missing.add(key);
+            }
+        }
+        return missing;
+    }
+
+    private void removeDependent(String key, String appName) {
+        Set<String> apps = dependents.get(key);
+        if (apps != null) {
+            apps.remove(appName);
+            if (apps.isEmpty()) {
+                dependents.remove(key);
+            }
+        }
+    }
+
+    private void recount(String appName) {
+        int structure = 0;
+        int services = 0;
+        for (String key : dependencies.getOrDefault(appName, NONE)) {
+            if (!available.contains(key)) {
+                if (key.startsWith(SERVICE + "/")) {
+                    services++;
+                } else {
+                    structure++;
+                }
+            }
+        }
+        missingStructure.put(appName, structure);
+        missingServices.put(appName, services);
+    }
+
+    private String[] dependenciesOf(AppState app) {
+        if (!app.hasSpec()) {
+            return NONE;
+        }
+        Set<String> keys = new LinkedHashSet<>();
+        String namespace = app.getNamespace();
+        keys.add(key(GATEWAY, namespace, app.getGateway()));
+        keys.add(key(SERVICE, namespace, app.getGateway()));
+        keys.add(key(REGISTRY, namespace, app.getRegistry()));
+        keys.add(key(SERVICE, namespace, app.getRegistry()));
+        List<String> microservices = app.getMicroservices();
+        List<String> microserviceServices = app.getMicroserviceServices();
+        for (int i = 0; i < microservices.size(); i++) {
+            keys.add(key(MICROSERVICE, namespace, microservices.get(i)));
+            keys.add(key(SERVICE, namespace, microserviceServices.get(i)));
+        }
+        String[] interned = new String[keys.size()];
+        int i = 0;
+        for (String key : keys) {
+            interned[i++] = key.intern();
+        }
+        return interned;
+    }
+
+}
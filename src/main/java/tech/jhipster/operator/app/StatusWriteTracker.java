@@ -0,0 +1,85 @@
+package tech.jhipster.operator.app;
+
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/*
+ * Keeps track of the last status and URL written for each application
+ *  - A write is only needed if the status or URL changed, or if the application generation moved past the one we observed
+ *  - It counts the writes that were issued and the ones that were skipped because nothing changed
+ */
+public class StatusWriteTracker {
+
+    private final Map<String, WrittenStatus> written = new ConcurrentHashMap<>();
+    private final AtomicLong writesIssued = new AtomicLong();
+    private final AtomicLong writesSkipped = new AtomicLong();
+
+    /*
+     * @return true if the status and URL need to be written for this app, false (and counted as skipped) otherwise
+     */
+    public boolean needsWrite(String appName, Long generation, AppStatus status, String url) {
+        if (isWritten(appName, generation, status, url)) {
+            writesSkipped.incrementAndGet();
+            return false;
+        }
+        return true;
+    }
+
+    /*
+     * Same check as needsWrite(), without counting it
+     */
+    public boolean isWritten(String appName, Long generation, AppStatus status, String url) {
+        WrittenStatus last = written.get(appName);
+        return last != null && last.matches(generation, status, url);
+    }
+
+    /*
+     * Record a write, the generation is the application generation that the written status reflects (observedGeneration)
+     */
+    public void recordWrite(String appName, Long generation, AppStatus status, String url) {
+        writesIssued.incrementAndGet();
+        written.put(appName, new WrittenStatus(generation, status, url));
+    }
+
+    /*
+     * Record the status that an app already has in the cluster, it is not counted as a write
+     */
+    public void recordExisting(String appName, Long generation, AppStatus status, String url) {
+        written.put(appName, new WrittenStatus(generation, status, url));
+    }
+
+    public void forget(String appName) {
+        written.remove(appName);
+    }
+
+    public long getWritesIssued() {
+        return writesIssued.get();
+    }
+
+    public long getWritesSkipped() {
+        return writesSkipped.get();
+    }
+
+    private static class WrittenStatus {
+        private final Long generation;
+        private final AppStatus status;
+        private final String url;
+
+        private WrittenStatus(Long generation, AppStatus status, String url) {
+            this.generation = generation;
+            this.status = status;
+            this.url = url;
+        }
+
+        private boolean matches(Long currentGeneration, AppStatus currentStatus, String currentUrl) {
+            // A newer generation means that somebody else changed the app after our write
+            if (generation != null && currentGeneration != null && currentGeneration > generation) {
+                return false;
+            }
+            return status == currentStatus && Objects.equals(url, currentUrl);
+        }
+    }
+
+}
@@ -0,0 +1,223 @@
+package tech.jhipster.operator.controllers;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import tech.jhipster.operator.JHipsterOperatorConfiguration;
+import tech.jhipster.operator.app.AppHealthSnapshot;
+import tech.jhipster.operator.app.AppService;
+import tech.jhipster.operator.app.AppStatusEvent;
+import tech.jhipster.operator.core.OperatorMetrics;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/*
+ * Server-Sent Events stream of app status changes (GET /apps/events)
+ *  - A new subscriber gets a "snapshot" event with the status and URL of every app, then a "status" event for every change
+ *  - Subscribers are async requests (SseEmitter), no thread is held per client
+ *  - Every subscriber has a bounded queue of events, publishing a change never blocks: a subscriber whose queue is
+ *    full is disconnected (it gets a new snapshot when it reconnects), so a slow client never holds back the others
+ *  - A small pool of senders drains the queues, one sender at a time per subscriber so its events stay in order,
+ *    and the subscribers waiting for a sender are bounded too
+ *  - Subscribers that fail (closed connection) are dropped, a periodic heartbeat finds the ones that went away silently
+ */
+@Component
+public class AppStatusStream {
+
+    private Logger logger = LoggerFactory.getLogger(AppStatusStream.class);
+
+    public static final String SNAPSHOT_EVENT = "snapshot";
+    public static final String STATUS_EVENT = "status";
+
+    @Autowired
+    private AppService appService;
+
+    @Autowired
+    private OperatorMetrics operatorMetrics;
+
+    @Autowired
+    private JHipsterOperatorConfiguration config;
+
+    private final List<Subscriber> subscribers = new CopyOnWriteArrayList<>();
+    // Orders the snapshot of a new subscriber with the changes published at the same time, so none is lost
+    private final Object publishLock = new Object();
+    private ThreadPoolExecutor senders;
+
+    @PostConstruct
+    public void init() {
+        AtomicInteger count = new AtomicInteger();
+        senders = new ThreadPoolExecutor(config.getStatusStreamSenders(), config.getStatusStreamSenders(), 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(config.getStatusStreamDispatchQueueCapacity()), r -> {
+                    Thread thread = new Thread(r, "app-status-stream-" + count.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        appService.addHealthListener(this::broadcast);
+        operatorMetrics.gauge("jhipster.operator.status.stream.subscribers", "Subscribers of the app status stream",
+                subscribers, List::size);
+    }
+
+    /*
+     * The emitter never times out, subscribers stay until they disconnect
+     */
+    public SseEmitter subscribe() {
+        return subscribe(new SseEmitter(0L));
+    }
+
+    SseEmitter subscribe(SseEmitter emitter) {
+        Subscriber subscriber = new Subscriber(emitter, config.getStatusStreamQueueCapacity());
+        emitter.onCompletion(() -> subscribers.remove(subscriber));
+        emitter.onTimeout(() -> subscribers.remove(subscriber));
+        emitter.onError(e -> subscribers.remove(subscriber));
+        synchronized (publishLock) {
+            if (enqueue(subscriber, SseEmitter.event().name(SNAPSHOT_EVENT).data(snapshot(), MediaType.APPLICATION_JSON))) {
+                subscribers.add(subscriber);
+                logger.info("> Status stream subscriber added (" + subscribers.size() + " subscribers)");
+            }
+        }
+        return emitter;
+    }
+
+    private List<AppStatusEvent> snapshot() {
+        AppHealthSnapshot snapshot = appService.getHealthSnapshot();
+        List<AppStatusEvent> apps = new ArrayList<>(snapshot.getStatuses().size());
+        snapshot.getStatuses().forEach((appKey, status) -> apps.add(new AppStatusEvent(appKey, status.name(), snapshot.getUrl(appKey))));
+        return apps;
+    }
+
+    /*
+     * Called by the reconcile workers, it only queues the event for every subscriber
+     */
+    private void broadcast(AppStatusEvent event) {
+        synchronized (publishLock) {
+            for (Subscriber subscriber : subscribers) {
+                // Every send builds the event, so a builder can't be shared by the subscribers
+                enqueue(subscriber, SseEmitter.event().name(STATUS_EVENT).data(event, MediaType.APPLICATION_JSON));
+            }
+        }
+    }
+
+    /*
+     * A comment line, ignored by the clients, that fails if the connection is gone
+     */
+    @Scheduled(fixedDelayString = "${jhipster.operator.status-stream.heartbeat:15000}")
+    public void heartbeat() {
+        subscribers.forEach(subscriber -> enqueue(subscriber, SseEmitter.event().comment("heartbeat")));
+    }
+
+    /*
+     * Queue an event for a subscriber and make sure that a sender drains its queue, it never blocks
+     */
+    private boolean enqueue(Subscriber subscriber, SseEmitter.SseEventBuilder event) {
+        if (!subscriber.events.offer(event)) {
+            operatorMetrics.statusStreamOverflow();
+            drop(subscriber, subscriber.events.size() + " events waiting to be sent");
+            return false;
+        }
+        if (subscriber.scheduled.compareAndSet(false, true)) {
+            try {
+                senders.execute(() -> drain(subscriber));
+            } catch (RejectedExecutionException e) {
+                subscriber.scheduled.set(false);
+                if (!senders.isShutdown()) {
+                    operatorMetrics.statusStreamOverflow();
+                }
+                drop(subscriber, "too many subscribers waiting for a sender");
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /*
+     * Send the queued events of a subscriber until its queue is empty
+     *  - The subscriber is scheduled again if an event was queued after the last one was taken
+     */
+    private void drain(Subscriber subscriber) {
+        do {
+            SseEmitter.SseEventBuilder event;
+            while ((event = subscriber.events.poll()) != null) {
+                if (subscriber.closed) {
+                    subscriber.emitter.complete();
+                    return;
+                }
+                if (!send(subscriber, event)) {
+                    return;
+                }
+            }
+            subscriber.scheduled.set(false);
+        } while (!subscriber.events.isEmpty() && subscriber.scheduled.compareAndSet(false, true));
+        if (subscriber.closed && subscriber.scheduled.compareAndSet(false, true)) {
+            subscriber.emitter.complete();
+        }
+    }
+
+    private boolean send(Subscriber subscriber, SseEmitter.SseEventBuilder event) {
+        try {
+            subscriber.emitter.send(event);
+            return true;
+        } catch (IOException | IllegalStateException e) {
+            // The container completes the emitter when the connection fails
+            subscriber.closed = true;
+            subscribers.remove(subscriber);
+            logger.debug("> Status stream subscriber dropped: " + e.getMessage());
+            return false;
+        }
+    }
+
+    /*
+     * Disconnect a subscriber that does not keep up
+     *  - If a sender has it, the sender completes it after its current send: completing it here would wait for that send
+     */
+    private void drop(Subscriber subscriber, String reason) {
+        subscriber.closed = true;
+        if (subscribers.remove(subscriber)) {
+            logger.warn("> Status stream subscriber disconnected, it does not keep up: " + reason);
+        }
+        if (subscriber.scheduled.compareAndSet(false, true)) {
+            subscriber.emitter.complete();
+        }
+    }
+
+    public int getSubscribers() {
+        return subscribers.size();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        senders.shutdownNow();
+        subscribers.forEach(subscriber -> subscriber.emitter.complete());
+        subscribers.clear();
+    }
+
+    private static class Subscriber {
+
+        private final SseEmitter emitter;
+        private final BlockingQueue<SseEmitter.SseEventBuilder> events;
+        // Set while a sender has the subscriber (running or waiting to run), or once it is completed
+        private final AtomicBoolean scheduled = new AtomicBoolean();
+        private volatile boolean closed;
+
+        private Subscriber(SseEmitter emitter, int capacity) {
+            this.emitter = emitter;
+            this.events = new ArrayBlockingQueue<>(capacity);
+        }
+    }
+
+}
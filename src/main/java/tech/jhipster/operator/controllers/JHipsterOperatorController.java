@@ -3,10 +3,12 @@ package tech.jhipster.operator.controllers;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 import tech.jhipster.operator.AppsOperator;
 import tech.jhipster.operator.app.AppService;
 
@@ -23,11 +25,30 @@ public class JHipsterOperatorController {
     @Autowired
     private AppsOperator appsOperator;
 
+    @Autowired
+    private AppStatusStream appStatusStream;
+
     @GetMapping("/apps/")
     public Collection<String> appList() {
         return applicationsService.getApps();
     }
 
+    /*
+     * Same as /apps/, but always namespace/name, for clients that watch several namespaces
+     */
+    @GetMapping("/apps/qualified")
+    public Collection<String> qualifiedAppList() {
+        return applicationsService.getQualifiedApps();
+    }
+
+    /*
+     * Stream of app status changes, instead of polling /apps/
+     */
+    @GetMapping(path = "/apps/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter appEvents() {
+        return appStatusStream.subscribe();
+    }
+
 
     @DeleteMapping("/apps/{appName}")
     public void deleteJHipsterApp(@PathVariable String appName) {
@@ -35,6 +56,12 @@ public class JHipsterOperatorController {
         appsOperator.deleteApp(appName);
     }
 
+    @DeleteMapping("/apps/{namespace}/{appName}")
+    public void deleteJHipsterApp(@PathVariable String namespace, @PathVariable String appName) {
+        logger.info("> Deleting Application: " + namespace + "/" + appName);
+        appsOperator.deleteApp(namespace, appName);
+    }
+
 
     @GetMapping("/status")
     public String serviceStatus() {
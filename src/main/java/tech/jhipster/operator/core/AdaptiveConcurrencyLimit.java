@@ -0,0 +1,69 @@
+package tech.jhipster.operator.core;
+
+/*
+ * Limit of concurrent calls that adapts to the latency of the calls (AIMD)
+ *  - Additive increase: every call that was fast and succeeded while the limit was in use adds 1/limit, so the limit
+ *    grows by about one per round of calls
+ *  - Multiplicative decrease: a call that was slow (over the latency threshold) or failed because the server is
+ *    overloaded (429, 5xx, I/O error) multiplies the limit by the backoff ratio, at most once per round trip, since
+ *    the calls that were in flight together saw the same congestion
+ *  - The limit stays between min and max, callers over the limit wait for a slot
+ */
+public class AdaptiveConcurrencyLimit {
+
+    private static final double BACKOFF_RATIO = 0.7;
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final long latencyThresholdNanos;
+    private double limit;
+    private int inFlight;
+    private long lastDecrease;
+
+    public AdaptiveConcurrencyLimit(int initialLimit, int minLimit, int maxLimit, long latencyThresholdNanos) {
+        this.minLimit = Math.max(1, minLimit);
+        this.maxLimit = Math.max(this.minLimit, maxLimit);
+        this.limit = Math.min(this.maxLimit, Math.max(this.minLimit, initialLimit));
+        this.latencyThresholdNanos = latencyThresholdNanos;
+        this.lastDecrease = System.nanoTime();
+    }
+
+    /*
+     * Wait for a slot, it needs to be released with release() when the call is done
+     */
+    public synchronized void acquire() throws InterruptedException {
+        while (inFlight >= (int) limit) {
+            wait();
+        }
+        inFlight++;
+    }
+
+    /*
+     * @param latencyNanos how long the call took
+     * @param overloaded the call failed because the server is overloaded, or couldn't be done
+     */
+    public synchronized void release(long latencyNanos, boolean overloaded) {
+        // Only calls that competed for the limit say something about it
+        boolean limitInUse = inFlight >= (int) limit / 2;
+        inFlight--;
+        if (overloaded || latencyNanos > latencyThresholdNanos) {
+            long now = System.nanoTime();
+            if (now - lastDecrease > latencyNanos) {
+                limit = Math.max(minLimit, limit * BACKOFF_RATIO);
+                lastDecrease = now;
+            }
+        } else if (limitInUse) {
+            limit = Math.min(maxLimit, limit + 1.0 / limit);
+        }
+        notifyAll();
+    }
+
+    public synchronized int getLimit() {
+        return (int) limit;
+    }
+
+    public synchronized int getInFlight() {
+        return inFlight;
+    }
+
+}
@@ -0,0 +1,101 @@
+package tech.jhipster.operator.core;
+
+import okhttp3.Interceptor;
+import okhttp3.Request;
+import okhttp3.Response;
+
+import java.io.IOException;
+import java.util.List;
+
+/*
+ * OkHttp interceptor that records every call made to the K8s API Server by the KubernetesClient
+ *  - verb: get, list, watch, create, update, patch or delete
+ *  - resource: the resource plural (for example services, applications) with its subresource if any (applications/status)
+ *  - outcome: success, client_error, server_error or io_error
+ */
+public class ApiCallMetricsInterceptor implements Interceptor {
+
+    private final OperatorMetrics metrics;
+
+    public ApiCallMetricsInterceptor(OperatorMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    @Override
+    public Response intercept(Chain chain) throws IOException {
+        Request request = chain.request();
+        String verb = verb(request);
+        String resource = resource(request.url().pathSegments());
+        long start = System.nanoTime();
+        try {
+            Response response = chain.proceed(request);
+            metrics.apiCall(verb, resource, outcome(response.code()), System.nanoTime() - start);
+            return response;
+        } catch (IOException e) {
+            metrics.apiCall(verb, resource, "io_error", System.nanoTime() - start);
+            throw e;
+        }
+    }
+
+    static String verb(Request request) {
+        String watch = request.url().queryParameter("watch");
+        if ("true".equals(watch)) {
+            return "watch";
+        }
+        switch (request.method()) {
+            case "GET":
+                // A collection (list) ends with the resource plural, a single resource ends with its name
+                return (resourceIndex(request.url().pathSegments()) == request.url().pathSegments().size() - 1) ? "list" : "get";
+            case "POST":
+                return "create";
+            case "PUT":
+                return "update";
+            case "PATCH":
+                return "patch";
+            case "DELETE":
+                return "delete";
+            default:
+                return request.method().toLowerCase();
+        }
+    }
+
+    /*
+     * /api/v1/[namespaces/{ns}/]{resource}[/{name}[/{subresource}]]
+     * /apis/{group}/{version}/[namespaces/{ns}/]{resource}[/{name}[/{subresource}]]
+     */
+    static String resource(List<String> segments) {
+        int index = resourceIndex(segments);
+        if (index < 0 || index >= segments.size()) {
+            return "other";
+        }
+        String resource = segments.get(index);
+        if (index + 2 < segments.size() && !segments.get(index + 2).isEmpty()) {
+            resource = resource + "/" + segments.get(index + 2);
+        }
+        return resource;
+    }
+
+    private static int resourceIndex(List<String> segments) {
+        int index;
+        if (segments.size() > 1 && segments.get(0).equals("api")) {
+            index = 2;
+        } else if (segments.size() > 2 && segments.get(0).equals("apis")) {
+            index = 3;
+        } else {
+            return -1;
+        }
+        // namespaces/{ns}/{resource}, but not a request for the namespaces themselves
+        if (segments.size() > index + 2 && segments.get(index).equals("namespaces")) {
+            index += 2;
+        }
+        return index;
+    }
+
+    static String outcome(int code) {
+        if (code < 400) {
+            return "success";
+        }
+        return (code < 500) ? "client_error" : "server_error";
+    }
+
+}
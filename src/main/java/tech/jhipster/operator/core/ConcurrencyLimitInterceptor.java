@@ -0,0 +1,50 @@
+package tech.jhipster.operator.core;
+
+import okhttp3.Interceptor;
+import okhttp3.Request;
+import okhttp3.Response;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.net.HttpURLConnection;
+
+/*
+ * OkHttp interceptor that keeps the calls in flight to the K8s API Server under an adaptive limit
+ *  - The limit grows while the API Server answers fast, and shrinks when it gets slow or answers 429 or 5xx
+ *  - Watches are not limited, they are long running
+ *  - The latency is the time to the response headers, the time waited for a slot (or for the rate limiter) is not part of it
+ */
+public class ConcurrencyLimitInterceptor implements Interceptor {
+
+    private static final int TOO_MANY_REQUESTS = 429;
+
+    private final AdaptiveConcurrencyLimit limit;
+
+    public ConcurrencyLimitInterceptor(AdaptiveConcurrencyLimit limit) {
+        this.limit = limit;
+    }
+
+    @Override
+    public Response intercept(Chain chain) throws IOException {
+        Request request = chain.request();
+        if (ApiCallMetricsInterceptor.verb(request).equals("watch")) {
+            return chain.proceed(request);
+        }
+        try {
+            limit.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for the API concurrency limit");
+        }
+        long start = System.nanoTime();
+        boolean overloaded = true;
+        try {
+            Response response = chain.proceed(request);
+            overloaded = response.code() == TOO_MANY_REQUESTS || response.code() >= HttpURLConnection.HTTP_INTERNAL_ERROR;
+            return response;
+        } finally {
+            limit.release(System.nanoTime() - start, overloaded);
+        }
+    }
+
+}
@@ -0,0 +1,186 @@
+package tech.jhipster.operator.core;
+
+import io.fabric8.kubernetes.api.model.ConfigMap;
+import io.fabric8.kubernetes.api.model.ConfigMapBuilder;
+import io.fabric8.kubernetes.client.KubernetesClient;
+import io.fabric8.kubernetes.client.KubernetesClientException;
+import io.fabric8.kubernetes.client.utils.Serialization;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.LongSupplier;
+
+/*
+ * Leader election lease stored in a ConfigMap annotation (same record as the client-go ConfigMap lock)
+ *  - The holder renews the lease every renew period, the writes use the ConfigMap resource version so only one replica wins
+ *  - Other replicas take over when they didn't see the record change for a whole lease duration
+ *  - Expiration is measured with the local clock from the moment the record was observed, so clock skew between nodes doesn't matter
+ *  - The holder stops considering itself the leader once it didn't renew for the renew deadline (2/3 of the lease duration),
+ *    before another replica can take over, even if the renew loop itself is stuck
+ */
+public class ConfigMapLease {
+
+    static final String LEADER_ANNOTATION = "control-plane.alpha.kubernetes.io/leader";
+
+    private Logger logger = LoggerFactory.getLogger(ConfigMapLease.class);
+
+    private final KubernetesClient kubernetesClient;
+    private final String namespace;
+    private final String name;
+    private final String identity;
+    private final long leaseDuration;
+    private final long renewDeadline;
+    private final LongSupplier clock;
+
+    private String observedRecord;
+    private long observedTime;
+    private volatile long lastRenew;
+    private volatile boolean leader = false;
+
+    public ConfigMapLease(KubernetesClient kubernetesClient, String namespace, String name, String identity, long leaseDuration) {
+        this(kubernetesClient, namespace, name, identity, leaseDuration, System::currentTimeMillis);
+    }
+
+    ConfigMapLease(KubernetesClient kubernetesClient, String namespace, String name, String identity, long leaseDuration, LongSupplier clock) {
+        this.kubernetesClient = kubernetesClient;
+        this.namespace = namespace;
+        this.name = name;
+        this.identity = identity;
+        this.leaseDuration = leaseDuration;
+        this.renewDeadline = leaseDuration * 2 / 3;
+        this.clock = clock;
+    }
+
+    /*
+     * Try to acquire the lease, or renew it if we already hold it
+     * @return true if we hold the lease after this call
+     */
+    public synchronized boolean tryAcquireOrRenew() {
+        long now = clock.getAsLong();
+        try {
+            ConfigMap configMap = kubernetesClient.configMaps().inNamespace(namespace).withName(name).get();
+            if (configMap == null) {
+                kubernetesClient.configMaps().inNamespace(namespace).create(new ConfigMapBuilder()
+                        .withNewMetadata().withName(name).withNamespace(namespace)
+                        .addToAnnotations(LEADER_ANNOTATION, record(Instant.ofEpochMilli(now).toString(), now, 0)).endMetadata()
+                        .build());
+                return renewed(now);
+            }
+            Map<String, String> annotations = configMap.getMetadata().getAnnotations();
+            String current = (annotations == null) ? null : annotations.get(LEADER_ANNOTATION);
+            if (!Objects.equals(current, observedRecord)) {
+                observedRecord = current;
+                observedTime = now;
+            }
+            Map<String, Object> currentRecord = parse(current);
+            String holder = (currentRecord == null) ? null : (String) currentRecord.get("holderIdentity");
+            boolean held = holder != null && !holder.isEmpty();
+            if (held && !identity.equals(holder) && now - observedTime < leaseDuration) {
+                return lost();
+            }
+            Map<String, String> nextAnnotations = (annotations == null) ? new HashMap<>() : new HashMap<>(annotations);
+            boolean mine = identity.equals(holder);
+            String acquireTime = mine ? (String) currentRecord.get("acquireTime") : Instant.ofEpochMilli(now).toString();
+            int transitions = (currentRecord == null) ? 0 : transitions(currentRecord) + (mine ? 0 : 1);
+            String next = record(acquireTime, now, transitions);
+            nextAnnotations.put(LEADER_ANNOTATION, next);
+            configMap.getMetadata().setAnnotations(nextAnnotations);
+            kubernetesClient.configMaps().inNamespace(namespace).withName(name)
+                    .lockResourceVersion(configMap.getMetadata().getResourceVersion()).replace(configMap);
+            observedRecord = next;
+            observedTime = now;
+            return renewed(now);
+        } catch (KubernetesClientException | IOException e) {
+            logger.debug(">> Lease " + name + " not acquired: " + e.getMessage());
+            // A leader keeps leading until the renew deadline, a single failed write shouldn't cause a transition
+            if (leader && now - lastRenew < renewDeadline) {
+                return true;
+            }
+            return lost();
+        }
+    }
+
+    /*
+     * Give the lease away, so another replica doesn't need to wait for it to expire
+     */
+    public synchronized void release() {
+        if (!leader) {
+            return;
+        }
+        leader = false;
+        try {
+            ConfigMap configMap = kubernetesClient.configMaps().inNamespace(namespace).withName(name).get();
+            if (configMap == null || configMap.getMetadata().getAnnotations() == null) {
+                return;
+            }
+            Map<String, Object> currentRecord = parse(configMap.getMetadata().getAnnotations().get(LEADER_ANNOTATION));
+            if (currentRecord == null || !identity.equals(currentRecord.get("holderIdentity"))) {
+                return;
+            }
+            currentRecord.put("holderIdentity", "");
+            configMap.getMetadata().getAnnotations().put(LEADER_ANNOTATION, Serialization.jsonMapper().writeValueAsString(currentRecord));
+            kubernetesClient.configMaps().inNamespace(namespace).withName(name)
+                    .lockResourceVersion(configMap.getMetadata().getResourceVersion()).replace(configMap);
+            logger.info(">> Lease " + name + " released by " + identity);
+        } catch (KubernetesClientException | IOException e) {
+            logger.error(">> Lease " + name + " could not be released: " + e.getMessage());
+        }
+    }
+
+    /*
+     * @return true if we hold the lease and renewed it within the renew deadline
+     */
+    public boolean isLeader() {
+        return leader && clock.getAsLong() - lastRenew < renewDeadline;
+    }
+
+    public String getIdentity() {
+        return identity;
+    }
+
+    private boolean renewed(long now) {
+        if (!leader) {
+            logger.info(">> " + identity + " is now the leader (lease " + namespace + "/" + name + ")");
+        }
+        lastRenew = now;
+        leader = true;
+        return true;
+    }
+
+    private boolean lost() {
+        if (leader) {
+            logger.info(">> " + identity + " is not the leader anymore (lease " + namespace + "/" + name + ")");
+        }
+        leader = false;
+        return false;
+    }
+
+    private String record(String acquireTime, long now, int transitions) throws IOException {
+        Map<String, Object> record = new HashMap<>();
+        record.put("holderIdentity", identity);
+        record.put("leaseDurationSeconds", leaseDuration / 1000);
+        record.put("acquireTime", acquireTime);
+        record.put("renewTime", Instant.ofEpochMilli(now).toString());
+        record.put("leaderTransitions", transitions);
+        return Serialization.jsonMapper().writeValueAsString(record);
+    }
+
+    @SuppressWarnings("unchecked")
+    private Map<String, Object> parse(String record) throws IOException {
+        if (record == null || record.isEmpty()) {
+            return null;
+        }
+        return Serialization.jsonMapper().readValue(record, HashMap.class);
+    }
+
+    private int transitions(Map<String, Object> record) {
+        Object transitions = record.get("leaderTransitions");
+        return (transitions instanceof Number) ? ((Number) transitions).intValue() : 0;
+    }
+
+}
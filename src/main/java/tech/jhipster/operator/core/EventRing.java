@@ -0,0 +1,97 @@
+package tech.jhipster.operator.core;
+
+import io.fabric8.kubernetes.client.Watcher;
+
+import java.util.Arrays;
+
+/*
+ * Bounded ring buffer of watch events, between the watch thread (producer) and the thread that applies them (consumer)
+ *  - The slots are allocated once, queueing an event doesn't allocate
+ *  - offer() never blocks, it returns false when the ring is full and the caller applies its overflow policy
+ *  - The consumer takes the events one by one, in order, awaitDrained() waits until it applied all of them
+ */
+public class EventRing<T> {
+
+    private final Watcher.Action[] actions;
+    private final Object[] resources;
+    private int head = 0;
+    private int size = 0;
+    // The consumer is applying an event
+    private boolean applying = false;
+
+    public EventRing(int capacity) {
+        this.actions = new Watcher.Action[Math.max(1, capacity)];
+        this.resources = new Object[actions.length];
+    }
+
+    public synchronized boolean offer(Watcher.Action action, T resource) {
+        if (size == actions.length) {
+            return false;
+        }
+        int tail = (head + size) % actions.length;
+        actions[tail] = action;
+        resources[tail] = resource;
+        size++;
+        notifyAll();
+        return true;
+    }
+
+    /*
+     * Block until an event is available and apply it, on the calling thread
+     */
+    public void take(ResourceCache.Listener<T> consumer) throws InterruptedException {
+        Watcher.Action action;
+        T resource;
+        synchronized (this) {
+            while (size == 0) {
+                wait();
+            }
+            action = actions[head];
+            @SuppressWarnings("unchecked")
+            T next = (T) resources[head];
+            resource = next;
+            actions[head] = null;
+            resources[head] = null;
+            head = (head + 1) % actions.length;
+            size--;
+            applying = true;
+        }
+        try {
+            consumer.onEvent(action, resource);
+        } finally {
+            synchronized (this) {
+                applying = false;
+                notifyAll();
+            }
+        }
+    }
+
+    /*
+     * Block until every queued event was applied
+     */
+    public synchronized void awaitDrained() throws InterruptedException {
+        while (size > 0 || applying) {
+            wait();
+        }
+    }
+
+    /*
+     * Drop the queued events
+     */
+    public synchronized void clear() {
+        Arrays.fill(actions, null);
+        Arrays.fill(resources, null);
+        head = 0;
+        size = 0;
+        notifyAll();
+    }
+
+    public synchronized int size() {
+        return size;
+    }
+
+    public int capacity() {
+        return actions.length;
+    }
+
+}
@@ -0,0 +1,86 @@
+package tech.jhipster.operator.core;
+
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+
+/*
+ * Per key exponential backoff with jitter
+ *  - Every failure doubles the delay for the key, up to the max delay
+ *  - Half of the delay is randomized so keys that failed together don't retry together
+ *  - forget(key) resets the key after something relevant changed, succeeded(key) after a success
+ *  - A failure can outlive the attempt that caused it (a write flushed after the reconcile that queued it): such a
+ *    failure is recorded with its cause, and a success doesn't reset the key until every cause recovered
+ */
+public class ExponentialBackoff {
+
+    private final long initialDelay;
+    private final long maxDelay;
+    private final Map<String, Integer> failures = new ConcurrentHashMap<>();
+    private final Map<String, Set<String>> causes = new ConcurrentHashMap<>();
+
+    public ExponentialBackoff(long initialDelay, long maxDelay) {
+        this.initialDelay = initialDelay;
+        this.maxDelay = maxDelay;
+    }
+
+    /*
+     * Record a failure for the key
+     * @return the delay in milliseconds before the key should be retried
+     */
+    public long nextDelay(String key) {
+        int count = failures.merge(key, 1, Integer::sum);
+        // Cap the exponent so the shift can't overflow
+        long delay = initialDelay << Math.min(count - 1, 30);
+        if (delay <= 0 || delay > maxDelay) {
+            delay = maxDelay;
+        }
+        long half = delay / 2;
+        return half + ThreadLocalRandom.current().nextLong(half + 1);
+    }
+
+    /*
+     * Record a failure for the key that stays until recovered(key, cause)
+     * @return the delay in milliseconds before the key should be retried
+     */
+    public synchronized long nextDelay(String key, String cause) {
+        causes.computeIfAbsent(key, k -> new HashSet<>()).add(cause);
+        return nextDelay(key);
+    }
+
+    /*
+     * The cause of a failure is gone, the key is reset if it was the last one
+     */
+    public synchronized void recovered(String key, String cause) {
+        Set<String> keyCauses = causes.get(key);
+        if (keyCauses != null && keyCauses.remove(cause) && keyCauses.isEmpty()) {
+            causes.remove(key);
+            failures.remove(key);
+        }
+    }
+
+    /*
+     * An attempt succeeded, the key is reset unless it has failures that did not recover yet
+     */
+    public synchronized void succeeded(String key) {
+        if (!causes.containsKey(key)) {
+            failures.remove(key);
+        }
+    }
+
+    public synchronized void forget(String key) {
+        failures.remove(key);
+        causes.remove(key);
+    }
+
+    public boolean isBackingOff(String key) {
+        return failures.containsKey(key);
+    }
+
+    public int getFailures(String key) {
+        return failures.getOrDefault(key, 0);
+    }
+
+}
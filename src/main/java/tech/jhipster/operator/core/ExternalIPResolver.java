@@ -0,0 +1,206 @@
+package tech.jhipster.operator.core;
+
+import io.fabric8.kubernetes.api.model.LoadBalancerIngress;
+import io.fabric8.kubernetes.api.model.Service;
+import io.fabric8.kubernetes.client.KubernetesClient;
+import io.fabric8.kubernetes.client.KubernetesClientException;
+import io.fabric8.kubernetes.client.Watch;
+import io.fabric8.kubernetes.client.Watcher;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/*
+ * Resolves the external IP used to build the app URLs
+ *  - It only watches two Services by name: istio-ingressgateway in istio-system and gateway in the operator namespace
+ *  - The resolved address is cached, getExternalIP() is a memory read
+ *  - Every change to one of the two Services resolves the address again, so a load balancer IP that is assigned later is picked up
+ */
+public class ExternalIPResolver {
+
+    public static final String NOT_AVAILABLE = "N/A";
+
+    private static final long RECONNECT_DELAY = 1000;
+    private static final long MAX_RECONNECT_DELAY = 60000;
+
+    static final String ISTIO_NAMESPACE = "istio-system";
+    static final String ISTIO_GATEWAY = "istio-ingressgateway";
+    static final String GATEWAY = "gateway";
+
+    private Logger logger = LoggerFactory.getLogger(ExternalIPResolver.class);
+
+    private final KubernetesClient kubernetesClient;
+    private final String namespace;
+    // Last known version of each watched Service, keyed by namespace/name
+    private final Map<String, Service> services = new ConcurrentHashMap<>();
+    private final Map<String, Watch> watches = new ConcurrentHashMap<>();
+    private final List<Consumer<String>> listeners = new CopyOnWriteArrayList<>();
+    private final ScheduledExecutorService reconnects = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "external-ip-reconnect");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private int reconnectAttempts = 0;
+    private volatile String externalIP = NOT_AVAILABLE;
+    private volatile boolean started = false;
+
+    public ExternalIPResolver(KubernetesClient kubernetesClient, String namespace) {
+        this.kubernetesClient = kubernetesClient;
+        this.namespace = namespace;
+    }
+
+    public synchronized void start() {
+        if (started) {
+            return;
+        }
+        watchService(ISTIO_NAMESPACE, ISTIO_GATEWAY);
+        watchService(namespace, GATEWAY);
+        started = true;
+        resolve();
+    }
+
+    public synchronized void stop() {
+        started = false;
+        watches.values().forEach(Watch::close);
+        watches.clear();
+    }
+
+    public boolean isStarted() {
+        return started;
+    }
+
+    public String getExternalIP() {
+        return externalIP;
+    }
+
+    /*
+     * Register a listener that is called with the new address every time it changes
+     */
+    public void addListener(Consumer<String> listener) {
+        listeners.add(listener);
+    }
+
+    private void watchService(String serviceNamespace, String name) {
+        String key = serviceNamespace + "/" + name;
+        Watch previous = watches.remove(key);
+        if (previous != null) {
+            previous.close();
+        }
+        Service service = kubernetesClient.services().inNamespace(serviceNamespace).withName(name).get();
+        String resourceVersion = null;
+        if (service != null) {
+            services.put(key, service);
+            resourceVersion = service.getMetadata().getResourceVersion();
+        } else {
+            services.remove(key);
+        }
+        Watch watch = kubernetesClient.services().inNamespace(serviceNamespace).withName(name).withResourceVersion(resourceVersion)
+                .watch(new Watcher<Service>() {
+                    @Override
+                    public void eventReceived(Action action, Service resource) {
+                        if (action.equals(Action.ERROR) || resource == null) {
+                            return;
+                        }
+                        if (action.equals(Action.DELETED)) {
+                            services.remove(key);
+                        } else {
+                            services.put(key, resource);
+                        }
+                        resolve();
+                    }
+
+                    @Override
+                    public void onClose(KubernetesClientException cause) {
+                        if (cause != null && started) {
+                            logger.error(">> Watch for Service " + key + " closed (" + cause.getCode() + "): " + cause.getMessage());
+                            // Not on the HTTP client thread, watching again reads the Service first
+                            reconnects.execute(() -> rewatch(serviceNamespace, name));
+                        }
+                    }
+                });
+        watches.put(key, watch);
+    }
+
+    /*
+     * Read the Service again and watch it from there, a failure is retried with a capped delay
+     */
+    private synchronized void rewatch(String serviceNamespace, String name) {
+        if (!started) {
+            return;
+        }
+        try {
+            watchService(serviceNamespace, name);
+            reconnectAttempts = 0;
+            resolve();
+        } catch (KubernetesClientException e) {
+            long delay = Math.min(MAX_RECONNECT_DELAY, RECONNECT_DELAY << Math.min(reconnectAttempts++, 6));
+            logger.error(">> Watch for Service " + serviceNamespace + "/" + name + " failed, retrying in " + delay + "ms: " + e.getMessage());
+            reconnects.schedule(() -> rewatch(serviceNamespace, name), delay, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /*
+     * Resolve the address from the cached Services, the istio ingress gateway wins over the gateway Service
+     *  - Synchronized: both watches and start() call it, the listeners must see the changes in the order they were resolved
+     */
+    private synchronized void resolve() {
+        String resolved = fromIstioGateway(services.get(ISTIO_NAMESPACE + "/" + ISTIO_GATEWAY));
+        if (resolved.equals(NOT_AVAILABLE)) {
+            resolved = fromGatewayService(services.get(namespace + "/" + GATEWAY));
+        }
+        if (!Objects.equals(resolved, externalIP)) {
+            logger.info(">> External IP changed from " + externalIP + " to " + resolved);
+            externalIP = resolved;
+            if (resolved.equals(NOT_AVAILABLE)) {
+                logger.error(">> There is no external IP for your apps, neither istio-ingressgateway nor a gateway Service provide one.");
+                logger.error(">> Trying to use port-forward:  'kubectl port-forward svc/jhipster-operator 8081:80 " +
+                        "-n jhipster' and then access using http://localhost:8081/apps/");
+            }
+            for (Consumer<String> listener : listeners) {
+                listener.accept(resolved);
+            }
+        }
+    }
+
+    private String fromIstioGateway(Service service) {
+        if (service == null || service.getStatus() == null || service.getStatus().getLoadBalancer() == null) {
+            return NOT_AVAILABLE;
+        }
+        List<LoadBalancerIngress> ingress = service.getStatus().getLoadBalancer().getIngress();
+        if (ingress != null && ingress.size() == 1 && ingress.get(0).getIp() != null) {
+            return ingress.get(0).getIp();
+        }
+        return NOT_AVAILABLE;
+    }
+
+    private String fromGatewayService(Service service) {
+        if (service == null || service.getSpec() == null) {
+            return NOT_AVAILABLE;
+        }
+        if ("LoadBalancer".equals(service.getSpec().getType())) {
+            if (service.getSpec().getExternalIPs() != null && !service.getSpec().getExternalIPs().isEmpty()) {
+                return service.getSpec().getExternalIPs().get(0);
+            }
+            logger.error(">> LoadBalancer type service is being used, but there is no External IP available, " +
+                    "you need to use port-forward:  'kubectl port-forward svc/jhipster-operator 8081:80 -n jhipster' " +
+                    "and then access using http://localhost:8081/apps/");
+            return "localhost:8081";
+        }
+        if ("NodePort".equals(service.getSpec().getType())) {
+            logger.error(">> NodePort type service is being used, you need to use port-forward:  'kubectl port-forward svc/jhipster-operator 8080:80 " +
+                    "-n jhipster' and then access using http://localhost:8081/apps/");
+            return "localhost:8081";
+        }
+        return NOT_AVAILABLE;
+    }
+
+}
@@ -3,18 +3,43 @@ package tech.jhipster.operator.core;
 import io.fabric8.kubernetes.api.model.*;
 import io.fabric8.kubernetes.api.model.apiextensions.CustomResourceDefinition;
 import io.fabric8.kubernetes.api.model.apiextensions.CustomResourceDefinitionList;
+import io.fabric8.kubernetes.client.HttpClientAware;
 import io.fabric8.kubernetes.client.KubernetesClient;
+import io.fabric8.kubernetes.client.KubernetesClientException;
+import io.fabric8.kubernetes.client.Watch;
+import io.fabric8.kubernetes.client.Watcher;
 import io.fabric8.kubernetes.client.dsl.MixedOperation;
 import io.fabric8.kubernetes.client.dsl.Resource;
+import io.fabric8.kubernetes.client.utils.Serialization;
+import io.fabric8.kubernetes.client.utils.URLUtils;
 import io.fabric8.kubernetes.internal.KubernetesDeserializer;
 import me.snowdrop.istio.client.IstioClient;
+import okhttp3.HttpUrl;
+import okhttp3.MediaType;
+import okhttp3.Request;
+import okhttp3.RequestBody;
+import okhttp3.Response;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
 import javax.annotation.PostConstruct;
+import java.io.IOException;
+import java.net.HttpURLConnection;
+import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
 
 @Service
 public class K8SCoreRuntime {
@@ -25,12 +50,38 @@ public class K8SCoreRuntime {
     private KubernetesClient kubernetesClient;
     @Autowired
     private IstioClient istioClient;
+    @Autowired
+    private OperatorMetrics operatorMetrics;
+
+    // Scope used for the Service index when watching all the namespaces
+    static final String ALL_NAMESPACES = "*";
+
+    private static final MediaType MERGE_PATCH_JSON = MediaType.parse("application/merge-patch+json");
+    private static final long RECONNECT_DELAY = 1000;
+    private static final long MAX_RECONNECT_DELAY = 60000;
 
-    private String externalIP = "N/A";
+    private ExternalIPResolver externalIPResolver;
+
+    // namespace/name of the K8s Services that exist in the watched namespaces, kept up to date by a watch per namespace
+    private final Set<String> serviceNames = ConcurrentHashMap.newKeySet();
+    private volatile boolean serviceIndexReady = false;
+    // Watch and resource version per watched namespace (ALL_NAMESPACES when watching the whole cluster)
+    private final Map<String, Watch> servicesWatches = new ConcurrentHashMap<>();
+    private final Map<String, String> servicesResourceVersions = new ConcurrentHashMap<>();
+    private final List<BiConsumer<String, String>> serviceListeners = new CopyOnWriteArrayList<>();
+    // Scopes that the Service index watches, a reconnection of any other scope is dropped
+    private final Set<String> serviceScopes = ConcurrentHashMap.newKeySet();
+    private final Map<String, Integer> serviceReconnectAttempts = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService serviceReconnects = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "service-index-reconnect");
+        thread.setDaemon(true);
+        return thread;
+    });
 
     @PostConstruct
     public void init() {
         logger.error(">>> Current Namespace: " + kubernetesClient.getNamespace());
+        externalIPResolver = new ExternalIPResolver(kubernetesClient, getNamespace());
     }
 
     public String getNamespace() {
@@ -41,15 +92,172 @@ public class K8SCoreRuntime {
         KubernetesDeserializer.registerCustomKind(apiVersion, kind, clazz);
     }
 
-    public boolean isServiceAvailable(String serviceName) {
+    /*
+     * Start the Service name index
+     *  - It lists the K8s Services in each namespace (null means all namespaces) and then keeps the names up to date with a watch
+     *  - After this isServiceAvailable is an in memory lookup
+     *  - If a watch is closed it is resumed from the last resource version seen, it only lists again on 410 (Gone)
+     *  - Failed reconnections are retried with a capped delay, as the resource caches do
+     */
+    public void startServiceIndex(List<String> namespaces) {
+        Set<String> scopes = new HashSet<>();
+        for (String namespace : namespaces) {
+            scopes.add(scope(namespace));
+        }
+        serviceScopes.retainAll(scopes);
+        serviceScopes.addAll(scopes);
+        // Stop watching namespaces that are not watched anymore
+        for (String scope : new HashSet<>(servicesWatches.keySet())) {
+            if (!scopes.contains(scope)) {
+                servicesWatches.remove(scope).close();
+                servicesResourceVersions.remove(scope);
+                serviceNames.removeIf(key -> inScope(key, scope));
+            }
+        }
+        for (String scope : scopes) {
+            startServiceIndex(scope);
+        }
+        serviceIndexReady = true;
+    }
+
+    private synchronized void startServiceIndex(String scope) {
+        Watch previous = servicesWatches.remove(scope);
+        if (previous != null) {
+            previous.close();
+        }
+        ServiceList list = ALL_NAMESPACES.equals(scope) ? kubernetesClient.services().inAnyNamespace().list()
+                : kubernetesClient.services().inNamespace(scope).list();
+        Set<String> keys = new HashSet<>();
+        for (io.fabric8.kubernetes.api.model.Service s : list.getItems()) {
+            keys.add(ResourceCache.key(s.getMetadata().getNamespace(), s.getMetadata().getName()));
+        }
+        // Services that appeared or disappeared while we were not watching
+        Set<String> changed = new HashSet<>(keys);
+        changed.removeAll(serviceNames);
+        for (String key : serviceNames) {
+            if (inScope(key, scope) && !keys.contains(key)) {
+                changed.add(key);
+            }
+        }
+        serviceNames.removeIf(key -> inScope(key, scope) && !keys.contains(key));
+        serviceNames.addAll(keys);
+        servicesResourceVersions.put(scope, list.getMetadata().getResourceVersion());
+        logger.info(">> K8s Services index for " + scope + " loaded with " + keys.size() + " services, Resource Version: "
+                + list.getMetadata().getResourceVersion());
+        if (serviceIndexReady) {
+            changed.forEach(key -> notifyServiceListeners(key.substring(0, key.indexOf('/')), key.substring(key.indexOf('/') + 1)));
+        }
+        watchServices(scope);
+    }
+
+    private void watchServices(String scope) {
+        Watcher<io.fabric8.kubernetes.api.model.Service> watcher = new Watcher<io.fabric8.kubernetes.api.model.Service>() {
+            @Override
+            public void eventReceived(Action action, io.fabric8.kubernetes.api.model.Service service) {
+                if (action.equals(Action.ERROR) || service == null) {
+                    return;
+                }
+                String namespace = service.getMetadata().getNamespace();
+                String name = service.getMetadata().getName();
+                if (action.equals(Action.ADDED) || action.equals(Action.MODIFIED)) {
+                    serviceNames.add(ResourceCache.key(namespace, name));
+                }
+                if (action.equals(Action.DELETED)) {
+                    serviceNames.remove(ResourceCache.key(namespace, name));
+                }
+                servicesResourceVersions.put(scope, service.getMetadata().getResourceVersion());
+                operatorMetrics.watchEvent("Service", action);
+                notifyServiceListeners(namespace, name);
+            }
+
+            @Override
+            public void onClose(KubernetesClientException cause) {
+                if (cause != null) {
+                    logger.error(">> K8s Services watch for " + scope + " closed (" + cause.getCode() + "): " + cause.getMessage());
+                    boolean gone = cause.getCode() == HttpURLConnection.HTTP_GONE;
+                    // Not on the HTTP client thread, a relist lists the Services and notifies the listeners
+                    try {
+                        serviceReconnects.execute(() -> reconnectServiceIndex(scope, gone));
+                    } catch (RejectedExecutionException e) {
+                        // Shutting down
+                    }
+                }
+            }
+        };
+        String resourceVersion = servicesResourceVersions.get(scope);
+        Watch watch = ALL_NAMESPACES.equals(scope)
+                ? kubernetesClient.services().inAnyNamespace().withResourceVersion(resourceVersion).watch(watcher)
+                : kubernetesClient.services().inNamespace(scope).withResourceVersion(resourceVersion).watch(watcher);
+        servicesWatches.put(scope, watch);
+    }
+
+    /*
+     * Resume the watch of a scope from the last resource version seen, or list it again if that version is gone
+     */
+    private synchronized void reconnectServiceIndex(String scope, boolean relist) {
+        if (!serviceScopes.contains(scope)) {
+            return;
+        }
+        try {
+            if (relist) {
+                logger.info(">> K8s Services for " + scope + " resource version " + servicesResourceVersions.get(scope) + " is gone, listing again");
+                startServiceIndex(scope);
+            } else {
+                logger.info(">> K8s Services for " + scope + " resuming watch from resource version " + servicesResourceVersions.get(scope));
+                watchServices(scope);
+            }
+            serviceReconnectAttempts.remove(scope);
+        } catch (KubernetesClientException e) {
+            boolean gone = e.getCode() == HttpURLConnection.HTTP_GONE;
+            int attempts = serviceReconnectAttempts.merge(scope, 1, Integer::sum);
+            long delay = Math.min(MAX_RECONNECT_DELAY, RECONNECT_DELAY << Math.min(attempts - 1, 6));
+            logger.error(">> K8s Services watch for " + scope + " reconnection failed, retrying in " + delay + "ms: " + e.getMessage());
+            serviceReconnects.schedule(() -> reconnectServiceIndex(scope, relist || gone), delay, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private void notifyServiceListeners(String namespace, String serviceName) {
+        for (BiConsumer<String, String> listener : serviceListeners) {
+            listener.accept(namespace, serviceName);
+        }
+    }
+
+    private static String scope(String namespace) {
+        return (namespace == null) ? ALL_NAMESPACES : namespace;
+    }
+
+    private static boolean inScope(String key, String scope) {
+        return ALL_NAMESPACES.equals(scope) || key.startsWith(scope + "/");
+    }
+
+    /*
+     * namespace/name of the K8s Services in the watched namespaces, as seen by the Service index
+     */
+    public Set<String> getServiceNames() {
+        return Collections.unmodifiableSet(serviceNames);
+    }
+
+    /*
+     * Register a listener that is called with the namespace and name of a K8s Service every time it changes
+     */
+    public void addServiceListener(BiConsumer<String, String> listener) {
+        serviceListeners.add(listener);
+    }
+
+    public boolean isServiceAvailable(String namespace, String serviceName) {
         //@TODO: i should check that the k8s deployment exist before adding the microservice
         //@TODO: i should update the k8s deployment to make sure that services are configured for the app
-        io.fabric8.kubernetes.api.model.Service service = kubernetesClient.services().withName(serviceName).get();
-        if (service != null) {
-            logger.debug(">> K8s Service " + serviceName + " found.");
+        boolean found;
+        if (serviceIndexReady) {
+            found = serviceName != null && serviceNames.contains(ResourceCache.key(namespace, serviceName));
+        } else {
+            found = kubernetesClient.services().inNamespace(namespace).withName(serviceName).get() != null;
+        }
+        if (found) {
+            logger.debug(">> K8s Service " + namespace + "/" + serviceName + " found.");
             return true;
         }
-        logger.error(">> K8s Service " + serviceName + " not found.");
+        logger.error(">> K8s Service " + namespace + "/" + serviceName + " not found.");
         return false;
 
     }
@@ -62,62 +270,85 @@ public class K8SCoreRuntime {
         return kubernetesClient.customResources(crd, resourceType, listClass, doneClass);
     }
 
-    public String findExternalIP() {
-        if (externalIP.equals("N/A")) {
-            externalIP = tryIstioGatewayApproach();
+    /*
+     * Apply a JSON merge patch to a custom resource, or to one of its subresources (for example "status")
+     *  - Only the fields in the patch are sent, so it doesn't conflict with changes made to other fields
+     * @return the resource as returned by the API Server
+     */
+    public <T extends HasMetadata> T mergePatchCustomResource(CustomResourceDefinition crd, String namespace, String name,
+                                                              String subresource, Object patch, Class<T> resourceType) {
+        String url = customResourcesUrl(crd, namespace) + "/" + name;
+        if (subresource != null) {
+            url = URLUtils.join(url, subresource);
         }
-        if (externalIP.equals("N/A")) {
-            externalIP = tryLoadBalancerApproach();
+        try {
+            RequestBody body = RequestBody.create(MERGE_PATCH_JSON, Serialization.jsonMapper().writeValueAsString(patch));
+            return execute(new Request.Builder().url(url).patch(body).build(), resourceType);
+        } catch (IOException e) {
+            throw KubernetesClientException.launderThrowable(e);
         }
-        return externalIP;
     }
 
-    private String tryLoadBalancerApproach() {
-        String loadBalancerIP = "N/A";
-        ServiceList list = kubernetesClient.services().inNamespace(getNamespace()).list();
-        for (io.fabric8.kubernetes.api.model.Service s : list.getItems()) {
-            if (s.getMetadata().getName().equals("gateway")) {
-                if (s.getSpec().getType().equals("LoadBalancer")) {
-                    if (!s.getSpec().getExternalIPs().isEmpty()) {
-                        loadBalancerIP = s.getSpec().getExternalIPs().get(0);
-                    } else {
-                        logger.error(">> LoadBalancer type service is being used, but there is no External IP available, " +
-                                "you need to use port-forward:  'kubectl port-forward svc/jhipster-operator 8081:80 -n jhipster' " +
-                                "and then access using http://localhost:8081/apps/");
-                        loadBalancerIP = "localhost:8081";
-                    }
-                }
-                if (s.getSpec().getType().equals("NodePort")) {
-                    logger.error(">> NodePort type service is being used, you need to use port-forward:  'kubectl port-forward svc/jhipster-operator 8080:80 " +
-                            "-n jhipster' and then access using http://localhost:8081/apps/");
-                    loadBalancerIP = "localhost:8081";
-                }
+    /*
+     * List one page of custom resources, in a namespace or in all namespaces (null)
+     *  - Use the continue token of the returned list metadata to get the next page, it is empty after the last page
+     *  - All the pages are a consistent snapshot, the list metadata resource version can be used to start a watch
+     */
+    public <L extends KubernetesResourceList> L listCustomResources(CustomResourceDefinition crd, String namespace, int limit,
+                                                                    String continueToken, Class<L> listType) {
+        HttpUrl.Builder url = HttpUrl.parse(customResourcesUrl(crd, namespace)).newBuilder()
+                .addQueryParameter("limit", String.valueOf(limit));
+        if (continueToken != null && !continueToken.isEmpty()) {
+            url.addQueryParameter("continue", continueToken);
+        }
+        try {
+            return execute(new Request.Builder().url(url.build()).get().build(), listType);
+        } catch (IOException e) {
+            throw KubernetesClientException.launderThrowable(e);
+        }
+    }
 
-            } else {
-                logger.error(">> Trying to resolve External IP from LoadBalancer service \"jhipster-operator\" failed. There will be no external IP for your apps.");
-                logger.error(">> Trying to use port-forward:  'kubectl port-forward svc/jhipster-operator 8081:80 " +
-                        "-n jhipster' and then access using http://localhost:8081/apps/");
-            }
+    /*
+     * A null namespace means all namespaces
+     */
+    private String customResourcesUrl(CustomResourceDefinition crd, String namespace) {
+        if (namespace == null) {
+            return URLUtils.join(kubernetesClient.getMasterUrl().toString(), "apis", crd.getSpec().getGroup(), crd.getSpec().getVersion(),
+                    crd.getSpec().getNames().getPlural());
         }
-        return loadBalancerIP;
+        return URLUtils.join(kubernetesClient.getMasterUrl().toString(), "apis", crd.getSpec().getGroup(), crd.getSpec().getVersion(),
+                "namespaces", namespace, crd.getSpec().getNames().getPlural());
     }
 
-    private String tryIstioGatewayApproach() {
-        String istioIP = "N/A";
-        ServiceList list = kubernetesClient.services().inNamespace("istio-system").list();
-        for (io.fabric8.kubernetes.api.model.Service s : list.getItems()) {
-            if (s.getMetadata().getName().equals("istio-ingressgateway")) {
-                List<LoadBalancerIngress> ingress = s.getStatus().getLoadBalancer().getIngress();
-                if (ingress.size() == 1) {
-                    istioIP = ingress.get(0).getIp();
-                }
-            } else {
-                logger.error(">> Trying to resolve External IP from istio-ingressgateway failed. There will be no external IP for your apps.");
-                logger.error(">> Trying to use port-forward:  'kubectl port-forward svc/jhipster-operator 8081:80 " +
-                        "-n jhipster' and then access using http://localhost:8081/apps/");
+    private <T> T execute(Request request, Class<T> type) throws IOException {
+        try (Response response = ((HttpClientAware) kubernetesClient).getHttpClient().newCall(request).execute()) {
+            if (!response.isSuccessful()) {
+                throw new KubernetesClientException("Failure executing: " + request.method() + " at: " + request.url()
+                        + ". Message: " + response.message(), response.code(), null);
             }
+            return Serialization.jsonMapper().readValue(response.body().byteStream(), type);
+        }
+    }
+
+    /*
+     * Start resolving the external IP, it is kept up to date by watching the istio ingress gateway and gateway Services
+     */
+    public void startExternalIPResolver() {
+        externalIPResolver.start();
+    }
+
+    public void addExternalIPListener(Consumer<String> listener) {
+        externalIPResolver.addListener(listener);
+    }
+
+    /*
+     * The external IP is cached by the resolver, this doesn't call the K8s API Server once the resolver is started
+     */
+    public String findExternalIP() {
+        if (!externalIPResolver.isStarted()) {
+            startExternalIPResolver();
         }
-        return istioIP;
+        return externalIPResolver.getExternalIP();
     }
 
 }
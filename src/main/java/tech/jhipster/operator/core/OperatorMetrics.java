@@ -0,0 +1,118 @@
+package tech.jhipster.operator.core;
+
+import io.fabric8.kubernetes.client.Watcher;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.ToDoubleFunction;
+
+/*
+ * Metrics published by the operator, exposed by the actuator (/actuator/prometheus)
+ *  - jhipster.operator.reconcile: duration of every reconcile pass, with a histogram, by outcome
+ *  - jhipster.operator.k8s.api.calls: calls to the K8s API Server by verb, resource and outcome
+ *  - jhipster.operator.k8s.api.throttle: time waited on the API rate limiter, by budget (read, write)
+ *  - jhipster.operator.k8s.api.concurrency.limit and .in.flight: adaptive limit of the calls in flight, and the calls in flight
+ *  - jhipster.operator.watch.events: watch events received by kind and type
+ *  - jhipster.operator.watch.echoes.suppressed: watch events dropped because they were the echo of our own writes, by kind
+ *  - jhipster.operator.watch.queue.depth: watch events waiting to be applied, by kind
+ *  - jhipster.operator.watch.queue.overflows: times a watch queue was full and the cache listed again, by kind
+ *  - jhipster.operator.status.writes: status writes issued and skipped
+ *  - jhipster.operator.writes: writes of the write-behind buffer (written, coalesced, failed), writes.pending: waiting ones
+ *  - jhipster.operator.apps: number of apps by status (HEALTHY, UNHEALTHY, INCOMPLETE)
+ *  - jhipster.operator.status.stream.subscribers and .overflows: subscribers of the status stream, and the ones
+ *    disconnected because they did not keep up
+ */
+@Component
+public class OperatorMetrics {
+
+    public static final String OUTCOME_SUCCESS = "success";
+    public static final String OUTCOME_RETRY = "retry";
+    public static final String OUTCOME_ERROR = "error";
+
+    @Autowired
+    private MeterRegistry registry;
+
+    public MeterRegistry getRegistry() {
+        return registry;
+    }
+
+    /*
+     * Not tagged by app: the apps come and go, a meter per app would grow the registry without bound
+     */
+    public void reconcileFinished(String outcome, long durationNanos) {
+        Timer.builder("jhipster.operator.reconcile")
+                .description("Duration of the app reconcile passes")
+                .tag("outcome", outcome)
+                .publishPercentileHistogram()
+                .register(registry)
+                .record(durationNanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void apiCall(String verb, String resource, String outcome, long durationNanos) {
+        Timer.builder("jhipster.operator.k8s.api.calls")
+                .description("Calls to the K8s API Server")
+                .tag("verb", verb)
+                .tag("resource", resource)
+                .tag("outcome", outcome)
+                .register(registry)
+                .record(durationNanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void apiThrottled(String budget, long waitedNanos) {
+        Timer.builder("jhipster.operator.k8s.api.throttle")
+                .description("Time waited on the K8s API rate limiter")
+                .tag("budget", budget)
+                .register(registry)
+                .record(waitedNanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void watchEvent(String kind, Watcher.Action action) {
+        Counter.builder("jhipster.operator.watch.events")
+                .description("Watch events received")
+                .tag("kind", kind)
+                .tag("type", action.name())
+                .register(registry)
+                .increment();
+    }
+
+    public void echoSuppressed(String kind) {
+        Counter.builder("jhipster.operator.watch.echoes.suppressed")
+                .description("Watch events of our own writes that were dropped")
+                .tag("kind", kind)
+                .register(registry)
+                .increment();
+    }
+
+    public void watchOverflow(String kind) {
+        Counter.builder("jhipster.operator.watch.queue.overflows")
+                .description("Watch queues that were full, the cache listed again")
+                .tag("kind", kind)
+                .register(registry)
+                .increment();
+    }
+
+    public void statusStreamOverflow() {
+        Counter.builder("jhipster.operator.status.stream.overflows")
+                .description("Status stream subscribers disconnected because they did not keep up")
+                .register(registry)
+                .increment();
+    }
+
+    /*
+     * Counters that are kept by someone else, like the status writes in StatusWriteTracker
+     */
+    public <T> void functionCounter(String name, String description, T source, ToDoubleFunction<T> value, String... tags) {
+        FunctionCounter.builder(name, source, value).description(description).tags(tags).register(registry);
+    }
+
+    public <T> void gauge(String name, String description, T source, ToDoubleFunction<T> value, String... tags) {
+        Gauge.builder(name, source, value).description(description).tags(tags).register(registry);
+    }
+
+}
@@ -0,0 +1,69 @@
+package tech.jhipster.operator.core;
+
+import io.fabric8.kubernetes.api.model.HasMetadata;
+import io.fabric8.kubernetes.client.Watcher;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/*
+ * Resource versions produced by the operator's own writes, to recognize their watch events (echoes)
+ *  - Every write of the operator (status, owner references) comes back as a MODIFIED event with the resource version
+ *    returned by the write, there is nothing new in it for the operator
+ *  - Only the last write of each resource is kept, and it is dropped once its echo arrived or the resource is deleted
+ *  - If the echo arrives before the write returned, it is handled as any other event, which is only extra work, and the
+ *    write is dropped by the first event with a newer resource version (its echo won't come anymore)
+ */
+public class OwnWrites {
+
+    private final Map<String, String> versions = new ConcurrentHashMap<>();
+
+    public void recordWrite(String kind, HasMetadata written) {
+        if (written != null && written.getMetadata() != null && written.getMetadata().getResourceVersion() != null) {
+            versions.put(key(kind, written), written.getMetadata().getResourceVersion());
+        }
+    }
+
+    /*
+     * @return true if the event is the echo of our last write of the resource
+     */
+    public boolean isEcho(String kind, Watcher.Action action, HasMetadata resource) {
+        String key = key(kind, resource);
+        if (action.equals(Watcher.Action.DELETED)) {
+            versions.remove(key);
+            return false;
+        }
+        String version = resource.getMetadata().getResourceVersion();
+        String written = versions.get(key);
+        if (written == null || version == null) {
+            return false;
+        }
+        if (version.equals(written)) {
+            return action.equals(Watcher.Action.MODIFIED) && versions.remove(key, version);
+        }
+        if (isNewer(version, written)) {
+            versions.remove(key, written);
+        }
+        return false;
+    }
+
+    public int size() {
+        return versions.size();
+    }
+
+    /*
+     * Resource versions are numbers in every API Server we know of, anything else is treated as newer so nothing is kept forever
+     */
+    private static boolean isNewer(String version, String than) {
+        try {
+            return Long.parseLong(version) > Long.parseLong(than);
+        } catch (NumberFormatException e) {
+            return true;
+        }
+    }
+
+    private static String key(String kind, HasMetadata resource) {
+        return kind + "/" + ResourceCache.key(resource.getMetadata().getNamespace(), resource.getMetadata().getName());
+    }
+
+}
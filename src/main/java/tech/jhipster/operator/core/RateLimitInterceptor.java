@@ -0,0 +1,54 @@
+package tech.jhipster.operator.core;
+
+import okhttp3.Interceptor;
+import okhttp3.Request;
+import okhttp3.Response;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+
+/*
+ * OkHttp interceptor that limits the rate of the calls made to the K8s API Server, so that a relist or a large
+ * reconcile pass doesn't get the operator throttled by the API Server (API Priority and Fairness)
+ *  - Reads (get, list) and writes (create, update, patch, delete) have their own token bucket (qps and burst)
+ *  - Watches are not limited, they are long running and the operator opens a few of them
+ *  - The calling thread waits for its token, the time waited is recorded (jhipster.operator.k8s.api.throttle)
+ */
+public class RateLimitInterceptor implements Interceptor {
+
+    public static final String READ = "read";
+    public static final String WRITE = "write";
+
+    private final TokenBucket reads;
+    private final TokenBucket writes;
+    private final OperatorMetrics metrics;
+
+    /*
+     * A null bucket doesn't limit that kind of call
+     */
+    public RateLimitInterceptor(TokenBucket reads, TokenBucket writes, OperatorMetrics metrics) {
+        this.reads = reads;
+        this.writes = writes;
+        this.metrics = metrics;
+    }
+
+    @Override
+    public Response intercept(Chain chain) throws IOException {
+        Request request = chain.request();
+        String verb = ApiCallMetricsInterceptor.verb(request);
+        if (!verb.equals("watch")) {
+            boolean read = verb.equals("get") || verb.equals("list");
+            TokenBucket bucket = read ? reads : writes;
+            if (bucket != null) {
+                try {
+                    metrics.apiThrottled(read ? READ : WRITE, bucket.acquire());
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new InterruptedIOException("Interrupted while waiting for the API rate limiter");
+                }
+            }
+        }
+        return chain.proceed(request);
+    }
+
+}
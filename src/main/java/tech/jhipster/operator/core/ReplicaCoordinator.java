@@ -0,0 +1,110 @@
+package tech.jhipster.operator.core;
+
+import io.fabric8.kubernetes.client.KubernetesClient;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import tech.jhipster.operator.JHipsterOperatorConfiguration;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.util.Collections;
+import java.util.List;
+
+/*
+ * Decides which replica of the operator reconciles each app
+ *  - Leader election (jhipster.operator.leader-election.enabled): only the leader reconciles, the other replicas keep
+ *    their caches warm and take over when the lease expires
+ *  - Sharding (jhipster.operator.sharding.enabled): apps are spread across the live replicas with rendezvous hashing,
+ *    the leader only takes care of removing replicas that stopped sending heartbeats
+ *  - With both disabled this replica reconciles every app (single replica deployment)
+ */
+@Service
+public class ReplicaCoordinator {
+
+    static final String LEASE_NAME = "jhipster-operator-leader";
+    static final String MEMBERS_NAME = "jhipster-operator-members";
+
+    private Logger logger = LoggerFactory.getLogger(ReplicaCoordinator.class);
+
+    @Autowired
+    private KubernetesClient kubernetesClient;
+
+    @Autowired
+    private JHipsterOperatorConfiguration config;
+
+    private ConfigMapLease lease;
+    private ShardMembership membership;
+    private volatile List<String> members = Collections.emptyList();
+
+    @PostConstruct
+    public void init() {
+        String namespace = kubernetesClient.getNamespace();
+        if (config.isLeaderElectionEnabled()) {
+            lease = new ConfigMapLease(kubernetesClient, namespace, LEASE_NAME, config.getIdentity(), config.getLeaseDuration());
+        }
+        if (config.isShardingEnabled()) {
+            membership = new ShardMembership(kubernetesClient, namespace, MEMBERS_NAME, config.getIdentity(), config.getLeaseDuration());
+        }
+        logger.info(">> Replica " + config.getIdentity() + " (leader election: " + config.isLeaderElectionEnabled()
+                + ", sharding: " + config.isShardingEnabled() + ")");
+    }
+
+    /*
+     * Renew the lease and the heartbeat, called every jhipster.operator.coordination.renew-period
+     * @return true if the apps that this replica is responsible for might have changed
+     */
+    public boolean renew() {
+        boolean changed = false;
+        if (lease != null) {
+            boolean wasLeader = lease.isLeader();
+            changed = lease.tryAcquireOrRenew() != wasLeader;
+        }
+        if (membership != null) {
+            membership.heartbeat(isLeader());
+            List<String> live = membership.getLiveMembers();
+            if (!live.equals(members)) {
+                logger.info(">> Live replicas changed from " + members + " to " + live + ", rebalancing apps");
+                members = live;
+                changed = true;
+            }
+        }
+        return changed;
+    }
+
+    public boolean isLeader() {
+        return lease == null || lease.isLeader();
+    }
+
+    /*
+     * @return true if this replica should reconcile the app
+     *  - The members are the ones of the last renew, they are only trusted while our own heartbeat is recent
+     */
+    public boolean isResponsibleFor(String appName) {
+        if (membership != null) {
+            List<String> current = members;
+            return membership.isMember() && current.contains(config.getIdentity()) && config.getIdentity().equals(ShardMembership.owner(appName, current));
+        }
+        return isLeader();
+    }
+
+    public List<String> getMembers() {
+        return members;
+    }
+
+    public String getIdentity() {
+        return config.getIdentity();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (membership != null) {
+            membership.leave();
+        }
+        if (lease != null) {
+            lease.release();
+        }
+    }
+
+}
@@ -0,0 +1,385 @@
+package tech.jhipster.operator.core;
+
+import io.fabric8.kubernetes.api.model.HasMetadata;
+import io.fabric8.kubernetes.api.model.KubernetesResourceList;
+import io.fabric8.kubernetes.client.KubernetesClientException;
+import io.fabric8.kubernetes.client.Watch;
+import io.fabric8.kubernetes.client.Watcher;
+import io.fabric8.kubernetes.client.dsl.FilterWatchListDeletable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.net.HttpURLConnection;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+import java.util.function.UnaryOperator;
+
+/*
+ * In memory cache for a kind of resource (shared informer style)
+ *  - It lists the resources once (in pages if a Pager is provided) and then keeps the local copy up to date with a watch
+ *  - Lookups are served from memory, no calls are made to the API Server after start()
+ *  - The watch thread only queues the events in a bounded ring, a dispatcher thread updates the local copy and then
+ *    notifies the listeners, in the order of the events, so slow listeners never hold the HTTP client threads
+ *  - If the ring is full the queued events are applied, the watch is closed and the resources are listed again
+ *    (coalesced into a relist), the differences are notified as events and overflow listeners are told about it
+ *  - If the watch is closed it is resumed from the last resource version seen, it only lists again if that
+ *    version is gone (410), and then the differences found by the new list are notified as events
+ *  - A compactor can reduce what is kept of each resource, listeners still get the whole resource of the event
+ */
+public class ResourceCache<T extends HasMetadata, L extends KubernetesResourceList> {
+
+    private static final long RECONNECT_DELAY = 1000;
+    private static final long MAX_RECONNECT_DELAY = 60000;
+    public static final int DEFAULT_QUEUE_CAPACITY = 4096;
+
+    private Logger logger = LoggerFactory.getLogger(ResourceCache.class);
+
+    private final String kind;
+    private final FilterWatchListDeletable<T, L, Boolean, Watch, Watcher<T>> client;
+    private final Pager<L> pager;
+    private final int pageSize;
+    private final UnaryOperator<T> compactor;
+    // namespace/name -> resource
+    private final Map<String, T> store = new ConcurrentHashMap<>();
+    private final List<Listener<T>> listeners = new CopyOnWriteArrayList<>();
+    private final List<Runnable> overflowListeners = new CopyOnWriteArrayList<>();
+    private final EventRing<T> events;
+    // Set when the ring is full, events are dropped until the relist is done
+    private final AtomicBoolean overflowed = new AtomicBoolean();
+    private final ScheduledExecutorService reconnects = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "resource-cache-reconnect");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private volatile String resourceVersion;
+    private Watch watch;
+    private Thread dispatcher;
+    private volatile boolean stopped = false;
+    private int reconnectAttempts = 0;
+
+    public ResourceCache(String kind, FilterWatchListDeletable<T, L, Boolean, Watch, Watcher<T>> client) {
+        this(kind, client, null, 0);
+    }
+
+    public ResourceCache(String kind, FilterWatchListDeletable<T, L, Boolean, Watch, Watcher<T>> client, Pager<L> pager, int pageSize) {
+        this(kind, client, pager, pageSize, UnaryOperator.identity());
+    }
+
+    /*
+     * The compactor must keep the metadata name, namespace and resource version
+     */
+    public ResourceCache(String kind, FilterWatchListDeletable<T, L, Boolean, Watch, Watcher<T>> client, Pager<L> pager, int pageSize,
+                         UnaryOperator<T> compactor) {
+        this(kind, client, pager, pageSize, compactor, DEFAULT_QUEUE_CAPACITY);
+    }
+
+    /*
+     * The queue capacity is the number of watch events that can wait for the dispatcher before a relist
+     */
+    public ResourceCache(String kind, FilterWatchListDeletable<T, L, Boolean, Watch, Watcher<T>> client, Pager<L> pager, int pageSize,
+                         UnaryOperator<T> compactor, int queueCapacity) {
+        this.kind = kind;
+        this.client = client;
+        this.pager = pager;
+        this.pageSize = pageSize;
+        this.compactor = compactor;
+        this.events = new EventRing<>(queueCapacity);
+    }
+
+    /*
+     * List the existing resources and start watching from the list resource version
+     */
+    public void start() {
+        start(null);
+    }
+
+    /*
+     * Same as start(), but every listed page is also handed to the page consumer before the next one is requested
+     */
+    public synchronized void start(Consumer<List<T>> pageConsumer) {
+        if (stopped) {
+            throw new IllegalStateException(kind + " cache was stopped");
+        }
+        listAndStore(pageConsumer, false);
+        if (dispatcher == null) {
+            dispatcher = new Thread(this::dispatch, "resource-cache-" + kind.toLowerCase());
+            dispatcher.setDaemon(true);
+            dispatcher.start();
+        }
+        watch();
+    }
+
+    /*
+     * Stop watching for good, the reconnection thread is released and a stopped cache can't be started again
+     */
+    public synchronized void stop() {
+        stopped = true;
+        reconnects.shutdownNow();
+        closeWatch();
+        if (dispatcher != null) {
+            dispatcher.interrupt();
+            dispatcher = null;
+        }
+        events.clear();
+    }
+
+    private synchronized void closeWatch() {
+        if (watch != null) {
+            watch.close();
+            watch = null;
+        }
+    }
+
+    /*
+     * Apply the queued events until stopped
+     */
+    private void dispatch() {
+        while (!stopped) {
+            try {
+                events.take(this::apply);
+            } catch (InterruptedException e) {
+                return;
+            }
+        }
+    }
+
+    private void apply(Watcher.Action action, T resource) {
+        String key = key(resource);
+        if (action.equals(Watcher.Action.ADDED) || action.equals(Watcher.Action.MODIFIED)) {
+            store.put(key, compactor.apply(resource));
+        }
+        if (action.equals(Watcher.Action.DELETED)) {
+            store.remove(key);
+        }
+        notifyListeners(action, resource);
+    }
+
+    /*
+     * List all the pages and replace the local copy
+     *  - When notifyChanges is set (relist after a 410) the listeners get an event for every difference
+     */
+    private void listAndStore(Consumer<List<T>> pageConsumer, boolean notifyChanges) {
+        Map<String, T> removed = new HashMap<>(store);
+        String listResourceVersion = null;
+        String continueToken = null;
+        do {
+            L list = (pager != null) ? pager.list(pageSize, continueToken) : client.list();
+            @SuppressWarnings("unchecked")
+            List<T> items = list.getItems();
+            for (T item : items) {
+                String key = key(item);
+                removed.remove(key);
+                T previous = store.put(key, compactor.apply(item));
+                if (notifyChanges) {
+                    if (previous == null) {
+                        notifyListeners(Watcher.Action.ADDED, item);
+                    } else if (!Objects.equals(previous.getMetadata().getResourceVersion(), item.getMetadata().getResourceVersion())) {
+                        notifyListeners(Watcher.Action.MODIFIED, item);
+                    }
+                }
+            }
+            if (pageConsumer != null) {
+                pageConsumer.accept(items);
+            }
+            // Every page belongs to the same snapshot, the first page has the version to watch from
+            if (listResourceVersion == null) {
+                listResourceVersion = list.getMetadata().getResourceVersion();
+            }
+            continueToken = (pager != null) ? list.getMetadata().getContinue() : null;
+        } while (continueToken != null && !continueToken.isEmpty());
+        // Drop anything that was deleted while we were not watching
+        for (T item : removed.values()) {
+            store.remove(key(item));
+            if (notifyChanges) {
+                notifyListeners(Watcher.Action.DELETED, item);
+            }
+        }
+        resourceVersion = listResourceVersion;
+        logger.info(">> " + kind + " cache loaded with " + store.size() + " items, Resource Version: " + resourceVersion);
+    }
+
+    private void watch() {
+        watch = client.withResourceVersion(resourceVersion).watch(new Watcher<T>() {
+            @Override
+            public void eventReceived(Action action, T resource) {
+                // The client reports an error Status (other than 410) as an ERROR event without a resource
+                if (overflowed.get() || action.equals(Action.ERROR) || resource == null) {
+                    return;
+                }
+                if (events.offer(action, resource)) {
+                    resourceVersion = resource.getMetadata().getResourceVersion();
+                } else if (overflowed.compareAndSet(false, true)) {
+                    overflow();
+                }
+            }
+
+            @Override
+            public void onClose(KubernetesClientException cause) {
+                // A null cause means that the watch was closed by us, after an overflow the relist also watches again
+                if (cause != null && !overflowed.get()) {
+                    logger.error(">> " + kind + " watch closed (" + cause.getCode() + "): " + cause.getMessage());
+                    boolean gone = cause.getCode() == HttpURLConnection.HTTP_GONE;
+                    // Not on the HTTP client thread: a relist waits for the dispatcher, lists every page and notifies the listeners
+                    try {
+                        reconnects.execute(() -> reconnect(gone));
+                    } catch (RejectedExecutionException e) {
+                        // Stopped
+                    }
+                }
+            }
+        });
+        reconnectAttempts = 0;
+    }
+
+    /*
+     * The dispatcher is behind by a full ring, the events that follow are dropped and replaced by a relist
+     */
+    private void overflow() {
+        logger.warn(">> " + kind + " watch queue is full (" + events.capacity() + " events), listing again");
+        for (Runnable listener : overflowListeners) {
+            listener.run();
+        }
+        try {
+            reconnects.execute(() -> {
+                closeWatch();
+                reconnect(true);
+            });
+        } catch (RejectedExecutionException e) {
+            // Stopped
+        }
+    }
+
+    /*
+     * Resume the watch from the last resource version seen, or list again if that version is gone
+     *  - Before a relist the queued events are applied, so that they can't overwrite the newer list
+     */
+    private void reconnect(boolean relist) {
+        if (relist) {
+            try {
+                events.awaitDrained();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+        reconnectNow(relist);
+    }
+
+    private synchronized void reconnectNow(boolean relist) {
+        if (stopped) {
+            return;
+        }
+        try {
+            if (relist) {
+                logger.info(">> " + kind + " resource version " + resourceVersion + " is gone, listing again");
+                listAndStore(null, true);
+                overflowed.set(false);
+            } else {
+                logger.info(">> " + kind + " resuming watch from resource version " + resourceVersion);
+            }
+            watch();
+        } catch (KubernetesClientException e) {
+            boolean gone = e.getCode() == HttpURLConnection.HTTP_GONE;
+            long delay = Math.min(MAX_RECONNECT_DELAY, RECONNECT_DELAY << Math.min(reconnectAttempts++, 6));
+            logger.error(">> " + kind + " watch reconnection failed, retrying in " + delay + "ms: " + e.getMessage());
+            reconnects.schedule(() -> reconnect(relist || gone), delay, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private void notifyListeners(Watcher.Action action, T resource) {
+        for (Listener<T> listener : listeners) {
+            try {
+                listener.onEvent(action, resource);
+            } catch (Exception e) {
+                logger.error(">> " + kind + " listener failed for " + resource.getMetadata().getName(), e);
+            }
+        }
+    }
+
+    public void addListener(Listener<T> listener) {
+        listeners.add(listener);
+    }
+
+    /*
+     * Called on the watch thread when the event queue overflows, before the relist
+     */
+    public void addOverflowListener(Runnable listener) {
+        overflowListeners.add(listener);
+    }
+
+    /*
+     * Watch events waiting for the dispatcher
+     */
+    public int getQueueDepth() {
+        return events.size();
+    }
+
+    public T get(String namespace, String name) {
+        if (name == null) {
+            return null;
+        }
+        return store.get(key(namespace, name));
+    }
+
+    /*
+     * Store the result of our own write right away, instead of waiting for its watch event
+     *  - Only if the local copy is still the version that the write was based on, a newer event is never overwritten
+     *  - Listeners are not notified, the watch event of the write will do it
+     */
+    public void recordWrite(T read, T written) {
+        if (written == null || written.getMetadata() == null) {
+            return;
+        }
+        String readVersion = read.getMetadata().getResourceVersion();
+        store.computeIfPresent(key(read), (key, current) ->
+                Objects.equals(current.getMetadata().getResourceVersion(), readVersion) ? compactor.apply(written) : current);
+    }
+
+    public boolean contains(String namespace, String name) {
+        return name != null && store.containsKey(key(namespace, name));
+    }
+
+    /*
+     * Resources are stored by namespace/name, a cache can watch a single namespace or all of them
+     */
+    public static String key(String namespace, String name) {
+        return namespace + "/" + name;
+    }
+
+    private static String key(HasMetadata resource) {
+        return key(resource.getMetadata().getNamespace(), resource.getMetadata().getName());
+    }
+
+    public Collection<T> list() {
+        return Collections.unmodifiableCollection(store.values());
+    }
+
+    public String getKind() {
+        return kind;
+    }
+
+    public String getResourceVersion() {
+        return resourceVersion;
+    }
+
+    public interface Listener<T> {
+        void onEvent(Watcher.Action action, T resource);
+    }
+
+    public interface Pager<L> {
+        L list(int limit, String continueToken);
+    }
+
+}
@@ -0,0 +1,65 @@
+package tech.jhipster.operator.core;
+
+import io.fabric8.kubernetes.api.model.HasMetadata;
+import io.fabric8.kubernetes.api.model.KubernetesResourceList;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/*
+ * The caches of one kind of resource for all the watched namespaces
+ *  - There is one cache per watched namespace, or a single cache for all the namespaces (null namespace)
+ *  - Lookups go to the cache of the resource namespace
+ */
+public class ResourceCacheGroup<T extends HasMetadata, L extends KubernetesResourceList> {
+
+    private static final String ALL_NAMESPACES = "*";
+
+    private final Map<String, ResourceCache<T, L>> caches = new LinkedHashMap<>();
+
+    /*
+     * @param namespace the namespace watched by the cache, null if it watches all the namespaces
+     */
+    public void add(String namespace, ResourceCache<T, L> cache) {
+        caches.put((namespace == null) ? ALL_NAMESPACES : namespace, cache);
+    }
+
+    public T get(String namespace, String name) {
+        ResourceCache<T, L> cache = cacheFor(namespace);
+        return (cache == null) ? null : cache.get(namespace, name);
+    }
+
+    public void recordWrite(T read, T written) {
+        ResourceCache<T, L> cache = cacheFor(read.getMetadata().getNamespace());
+        if (cache != null) {
+            cache.recordWrite(read, written);
+        }
+    }
+
+    private ResourceCache<T, L> cacheFor(String namespace) {
+        ResourceCache<T, L> cache = caches.get(namespace);
+        return (cache == null) ? caches.get(ALL_NAMESPACES) : cache;
+    }
+
+    public void addListener(ResourceCache.Listener<T> listener) {
+        caches.values().forEach(cache -> cache.addListener(listener));
+    }
+
+    public Collection<ResourceCache<T, L>> getCaches() {
+        return caches.values();
+    }
+
+    public List<T> list() {
+        List<T> all = new ArrayList<>();
+        caches.values().forEach(cache -> all.addAll(cache.list()));
+        return all;
+    }
+
+    public void stop() {
+        caches.values().forEach(ResourceCache::stop);
+    }
+
+}
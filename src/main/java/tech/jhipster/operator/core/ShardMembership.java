@@ -0,0 +1,205 @@
+package tech.jhipster.operator.core;
+
+import io.fabric8.kubernetes.api.model.ConfigMap;
+import io.fabric8.kubernetes.api.model.ConfigMapBuilder;
+import io.fabric8.kubernetes.client.KubernetesClient;
+import io.fabric8.kubernetes.client.KubernetesClientException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.net.HttpURLConnection;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.LongSupplier;
+
+/*
+ * Membership of the operator replicas that share the reconciliation work
+ *  - Every replica writes a heartbeat (its identity and a counter) into a shared ConfigMap every renew period
+ *  - A replica is live while its heartbeat keeps changing, measured with the local clock like the leader lease
+ *  - Keys (app names) are assigned to live replicas with rendezvous hashing, so only the keys of a replica
+ *    that joins or leaves move to a different replica
+ *  - A replica only counts itself as a member while it wrote its heartbeat within the renew deadline (2/3 of the lease
+ *    duration), so it stops reconciling its keys before the other replicas see it as gone and take them over
+ */
+public class ShardMembership {
+
+    private static final int MAX_HEARTBEAT_ATTEMPTS = 3;
+
+    private Logger logger = LoggerFactory.getLogger(ShardMembership.class);
+
+    private final KubernetesClient kubernetesClient;
+    private final String namespace;
+    private final String name;
+    private final String identity;
+    private final long leaseDuration;
+    private final long renewDeadline;
+    private final LongSupplier clock;
+
+    // Member -> last heartbeat value seen and when we saw it change
+    private final Map<String, String> observedHeartbeats = new HashMap<>();
+    private final Map<String, Long> observedTimes = new HashMap<>();
+    private long heartbeat = 0;
+    private volatile long lastHeartbeat = 0;
+
+    public ShardMembership(KubernetesClient kubernetesClient, String namespace, String name, String identity, long leaseDuration) {
+        this(kubernetesClient, namespace, name, identity, leaseDuration, System::currentTimeMillis);
+    }
+
+    ShardMembership(KubernetesClient kubernetesClient, String namespace, String name, String identity, long leaseDuration, LongSupplier clock) {
+        this.kubernetesClient = kubernetesClient;
+        this.namespace = namespace;
+        this.name = name;
+        this.identity = identity;
+        this.leaseDuration = leaseDuration;
+        this.renewDeadline = leaseDuration * 2 / 3;
+        this.clock = clock;
+    }
+
+    /*
+     * Write our heartbeat and observe the heartbeats of the other replicas
+     *  - Conflicting writes are not retried, the next renew period writes again
+     *  - If prune is set, members that are not live anymore are removed from the ConfigMap
+     */
+    public synchronized void heartbeat(boolean prune) {
+        heartbeat++;
+        for (int attempt = 1; attempt <= MAX_HEARTBEAT_ATTEMPTS; attempt++) {
+            try {
+                writeHeartbeat(prune);
+                lastHeartbeat = clock.getAsLong();
+                return;
+            } catch (KubernetesClientException e) {
+                // Someone else wrote their heartbeat first, read it again and retry
+                if (e.getCode() != HttpURLConnection.HTTP_CONFLICT || attempt == MAX_HEARTBEAT_ATTEMPTS) {
+                    logger.debug(">> Heartbeat for " + identity + " not written: " + e.getMessage());
+                    return;
+                }
+            }
+        }
+    }
+
+    private void writeHeartbeat(boolean prune) {
+        long now = clock.getAsLong();
+        ConfigMap configMap = kubernetesClient.configMaps().inNamespace(namespace).withName(name).get();
+        if (configMap == null) {
+            kubernetesClient.configMaps().inNamespace(namespace).create(new ConfigMapBuilder()
+                    .withNewMetadata().withName(name).withNamespace(namespace).endMetadata()
+                    .addToData(identity, String.valueOf(heartbeat))
+                    .build());
+            return;
+        }
+        Map<String, String> data = (configMap.getData() == null) ? new HashMap<>() : new HashMap<>(configMap.getData());
+        observe(data, now);
+        data.put(identity, String.valueOf(heartbeat));
+        if (prune) {
+            for (String member : new ArrayList<>(data.keySet())) {
+                if (!member.equals(identity) && !isLive(member, now)) {
+                    logger.info(">> Removing replica " + member + " from " + name + ", no heartbeat for " + leaseDuration + "ms");
+                    data.remove(member);
+                }
+            }
+        }
+        configMap.setData(data);
+        kubernetesClient.configMaps().inNamespace(namespace).withName(name)
+                .lockResourceVersion(configMap.getMetadata().getResourceVersion()).replace(configMap);
+    }
+
+    /*
+     * Remove our heartbeat, so our keys move to other replicas right away
+     */
+    public synchronized void leave() {
+        try {
+            ConfigMap configMap = kubernetesClient.configMaps().inNamespace(namespace).withName(name).get();
+            if (configMap == null || configMap.getData() == null || !configMap.getData().containsKey(identity)) {
+                return;
+            }
+            configMap.getData().remove(identity);
+            kubernetesClient.configMaps().inNamespace(namespace).withName(name)
+                    .lockResourceVersion(configMap.getMetadata().getResourceVersion()).replace(configMap);
+            logger.info(">> Replica " + identity + " left " + name);
+        } catch (KubernetesClientException e) {
+            logger.error(">> Replica " + identity + " could not leave " + name + ": " + e.getMessage());
+        }
+        lastHeartbeat = 0;
+    }
+
+    /*
+     * @return the live members sorted by identity, we are only a member while our own heartbeat is recent
+     */
+    public synchronized List<String> getLiveMembers() {
+        long now = clock.getAsLong();
+        List<String> members = new ArrayList<>();
+        for (String member : observedTimes.keySet()) {
+            if (!member.equals(identity) && isLive(member, now)) {
+                members.add(member);
+            }
+        }
+        if (lastHeartbeat > 0 && now - lastHeartbeat < leaseDuration) {
+            members.add(identity);
+        }
+        Collections.sort(members);
+        return members;
+    }
+
+    /*
+     * @return true if we wrote our heartbeat within the renew deadline
+     */
+    public boolean isMember() {
+        long last = lastHeartbeat;
+        return last > 0 && clock.getAsLong() - last < renewDeadline;
+    }
+
+    private void observe(Map<String, String> data, long now) {
+        data.forEach((member, value) -> {
+            if (!value.equals(observedHeartbeats.get(member))) {
+                observedHeartbeats.put(member, value);
+                observedTimes.put(member, now);
+            }
+        });
+        observedHeartbeats.keySet().retainAll(data.keySet());
+        observedTimes.keySet().retainAll(data.keySet());
+    }
+
+    private boolean isLive(String member, long now) {
+        Long observed = observedTimes.get(member);
+        return observed != null && now - observed < leaseDuration;
+    }
+
+    /*
+     * Rendezvous (highest random weight) hashing: the key belongs to the member with the highest hash of member and key
+     */
+    public static String owner(String key, Collection<String> members) {
+        String owner = null;
+        long best = Long.MIN_VALUE;
+        for (String member : members) {
+            long weight = hash(member + "/" + key);
+            if (owner == null || weight > best || (weight == best && member.compareTo(owner) < 0)) {
+                owner = member;
+                best = weight;
+            }
+        }
+        return owner;
+    }
+
+    /*
+     * 64 bit FNV-1a followed by a finalizer mix, String.hashCode() is not well distributed enough for this
+     */
+    static long hash(String value) {
+        long hash = 0xcbf29ce484222325L;
+        for (byte b : value.getBytes(StandardCharsets.UTF_8)) {
+            hash ^= (b & 0xff);
+            hash *= 0x100000001b3L;
+        }
+        hash ^= (hash >>> 33);
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= (hash >>> 33);
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= (hash >>> 33);
+        return hash;
+    }
+
+}
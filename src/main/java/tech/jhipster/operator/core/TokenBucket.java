@@ -0,0 +1,59 @@
+package tech.jhipster.operator.core;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/*
+ * Token bucket rate limiter
+ *  - Tokens are added at a steady rate (qps) up to the burst size, every call takes one token
+ *  - When the bucket is empty the caller takes a token in advance and waits until that token would have been added,
+ *    so waiting callers are served in order and the rate is never exceeded
+ */
+public class TokenBucket {
+
+    private final double tokensPerNano;
+    private final double burst;
+    private final LongSupplier nanoTime;
+    private double tokens;
+    private long lastRefill;
+
+    public TokenBucket(double qps, int burst) {
+        this(qps, burst, System::nanoTime);
+    }
+
+    TokenBucket(double qps, int burst, LongSupplier nanoTime) {
+        if (qps <= 0) {
+            throw new IllegalArgumentException("qps must be positive: " + qps);
+        }
+        this.tokensPerNano = qps / TimeUnit.SECONDS.toNanos(1);
+        this.burst = Math.max(1, burst);
+        this.nanoTime = nanoTime;
+        this.tokens = this.burst;
+        this.lastRefill = nanoTime.getAsLong();
+    }
+
+    /*
+     * Take a token, waiting for it if needed
+     * @return the time waited, in nanoseconds
+     */
+    public long acquire() throws InterruptedException {
+        long wait = reserve();
+        if (wait > 0) {
+            TimeUnit.NANOSECONDS.sleep(wait);
+        }
+        return wait;
+    }
+
+    /*
+     * Take a token without waiting for it
+     * @return the time to wait before using the token, in nanoseconds
+     */
+    synchronized long reserve() {
+        long now = nanoTime.getAsLong();
+        tokens = Math.min(burst, tokens + (now - lastRefill) * tokensPerNano);
+        lastRefill = now;
+        tokens -= 1;
+        return (tokens >= 0) ? 0 : (long) Math.ceil(-tokens / tokensPerNano);
+    }
+
+}
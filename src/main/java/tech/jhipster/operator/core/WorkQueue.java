@@ -0,0 +1,75 @@
+package tech.jhipster.operator.core;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/*
+ * Keyed work queue for reconciliation
+ *  - A key is only queued once while it is pending, adding it again is a no-op
+ *  - A key that is added while it is being processed is queued again when the processing is done
+ *  - A key can be added after a delay, to retry it later
+ */
+public class WorkQueue {
+
+    private final Deque<String> queue = new ArrayDeque<>();
+    // Keys that need to be processed
+    private final Set<String> dirty = new HashSet<>();
+    // Keys that are being processed right now
+    private final Set<String> processing = new HashSet<>();
+    private final ScheduledExecutorService delayedAdds = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "work-queue-delayed-adds");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public synchronized void add(String key) {
+        if (key == null || dirty.contains(key)) {
+            return;
+        }
+        dirty.add(key);
+        if (processing.contains(key)) {
+            return;
+        }
+        queue.add(key);
+        notifyAll();
+    }
+
+    public void addAfter(String key, long delayMillis) {
+        if (delayMillis <= 0) {
+            add(key);
+            return;
+        }
+        delayedAdds.schedule(() -> add(key), delayMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /*
+     * Block until a key is available, the key needs to be released with done(key) after processing it
+     */
+    public synchronized String take() throws InterruptedException {
+        while (queue.isEmpty()) {
+            wait();
+        }
+        String key = queue.poll();
+        dirty.remove(key);
+        processing.add(key);
+        return key;
+    }
+
+    public synchronized void done(String key) {
+        processing.remove(key);
+        if (dirty.contains(key)) {
+            queue.add(key);
+            notifyAll();
+        }
+    }
+
+    public synchronized int size() {
+        return queue.size();
+    }
+
+}
@@ -0,0 +1,178 @@
+package tech.jhipster.operator.core;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/*
+ * Write-behind buffer for the writes of the operator (app status, owner references)
+ *  - Writes are queued by the key of the resource that they change, only the last write queued for a key is kept,
+ *    so many changes to the same resource between two flushes cost a single write
+ *  - Every interval the pending writes are handed to a fixed number of writer threads (bounded concurrency)
+ *  - A key is never written by two threads at the same time, a write queued while its key is being written waits
+ *    for the next flush
+ *  - Writes are not retried here, a write has to handle its own failures
+ */
+public class WriteBehindBuffer {
+
+    private Logger logger = LoggerFactory.getLogger(WriteBehindBuffer.class);
+
+    private final String name;
+    // Insertion order, the oldest writes are flushed first
+    private final Map<String, Runnable> pending = new LinkedHashMap<>();
+    private final Set<String> writing = new HashSet<>();
+    private final AtomicLong written = new AtomicLong();
+    private final AtomicLong coalesced = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+    private ScheduledExecutorService flusher;
+    private ExecutorService writers;
+
+    public WriteBehindBuffer(String name) {
+        this.name = name;
+    }
+
+    public synchronized void start(long intervalMillis, int concurrency) {
+        if (flusher != null) {
+            return;
+        }
+        writers = Executors.newFixedThreadPool(Math.max(1, concurrency), namedThreads(name + "-writer-"));
+        flusher = Executors.newSingleThreadScheduledExecutor(namedThreads(name + "-flusher-"));
+        flusher.scheduleWithFixedDelay(this::flush, intervalMillis, Math.max(1, intervalMillis), TimeUnit.MILLISECONDS);
+        logger.info("> " + name + " write-behind started, flushing every " + intervalMillis + "ms with " + concurrency + " writers");
+    }
+
+    /*
+     * Queue a write, it replaces the write already pending for the same key
+     */
+    public synchronized void submit(String key, Runnable write) {
+        if (pending.put(key, write) != null) {
+            coalesced.incrementAndGet();
+        }
+    }
+
+    /*
+     * Hand the pending writes to the writers, except the ones whose key is being written
+     */
+    public void flush() {
+        List<String> keys = new ArrayList<>();
+        List<Runnable> batch = new ArrayList<>();
+        ExecutorService executor;
+        synchronized (this) {
+            executor = writers;
+            if (executor == null) {
+                return;
+            }
+            Iterator<Map.Entry<String, Runnable>> entries = pending.entrySet().iterator();
+            while (entries.hasNext()) {
+                Map.Entry<String, Runnable> entry = entries.next();
+                if (writing.add(entry.getKey())) {
+                    keys.add(entry.getKey());
+                    batch.add(entry.getValue());
+                    entries.remove();
+                }
+            }
+        }
+        for (int i = 0; i < batch.size(); i++) {
+            String key = keys.get(i);
+            Runnable write = batch.get(i);
+            try {
+                executor.execute(() -> write(key, write));
+            } catch (RejectedExecutionException e) {
+                // Stopping, the write stays pending
+                synchronized (this) {
+                    writing.remove(key);
+                    pending.putIfAbsent(key, write);
+                }
+            }
+        }
+    }
+
+    private void write(String key, Runnable write) {
+        try {
+            write.run();
+            written.incrementAndGet();
+        } catch (Exception e) {
+            failed.incrementAndGet();
+            logger.error("> " + name + " write of " + key + " failed", e);
+        } finally {
+            synchronized (this) {
+                writing.remove(key);
+            }
+        }
+    }
+
+    /*
+     * Flush what is pending and wait for the writers to finish
+     */
+    public void stop() {
+        ExecutorService stoppedWriters;
+        synchronized (this) {
+            if (flusher == null) {
+                return;
+            }
+            flusher.shutdownNow();
+            flusher = null;
+        }
+        flush();
+        synchronized (this) {
+            stoppedWriters = writers;
+            writers = null;
+        }
+        stoppedWriters.shutdown();
+        try {
+            if (!stoppedWriters.awaitTermination(10, TimeUnit.SECONDS)) {
+                logger.error("> " + name + " writes still running after 10s, " + getPending() + " pending writes dropped");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    public synchronized int getPending() {
+        return pending.size();
+    }
+
+    /*
+     * Nothing pending and nothing being written
+     */
+    public synchronized boolean isIdle() {
+        return pending.isEmpty() && writing.isEmpty();
+    }
+
+    public long getWritten() {
+        return written.get();
+    }
+
+    public long getCoalesced() {
+        return coalesced.get();
+    }
+
+    public long getFailed() {
+        return failed.get();
+    }
+
+    private static ThreadFactory namedThreads(String prefix) {
+        AtomicInteger count = new AtomicInteger();
+        return r -> {
+            Thread thread = new Thread(r, prefix + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+}
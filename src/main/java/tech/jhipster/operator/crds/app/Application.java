@@ -15,6 +15,7 @@ public class Application extends CustomResource {
 
     private ApplicationSpec spec;
 
+    private ApplicationStatus status;
 
     public ApplicationSpec getSpec() {
         return spec;
@@ -24,12 +25,21 @@ public class Application extends CustomResource {
         this.spec = spec;
     }
 
+    public ApplicationStatus getStatus() {
+        return status;
+    }
+
+    public void setStatus(ApplicationStatus status) {
+        this.status = status;
+    }
+
 
     @Override
     public String toString() {
         return "Application{" +
                 super.toString() +
                 "spec=" + spec +
+                ", status=" + status +
                 '}';
     }
 
@@ -38,11 +48,12 @@ public class Application extends CustomResource {
         if (this == o) return true;
         if (!(o instanceof Application)) return false;
         Application that = (Application) o;
-        return spec.equals(that.spec);
+        return Objects.equals(spec, that.spec) &&
+                Objects.equals(status, that.status);
     }
 
     @Override
     public int hashCode() {
-        return Objects.hash(spec);
+        return Objects.hash(spec, status);
     }
 }
@@ -19,10 +19,6 @@ public class ApplicationSpec implements KubernetesResource {
     private String registry;
     private String gateway;
 
-    private String status = "UNKNOWN";
-
-    private String url = "NO URL YET.";
-
     public String getVersion() {
         return version;
     }
@@ -47,22 +43,6 @@ public class ApplicationSpec implements KubernetesResource {
         this.microservices = microservices;
     }
 
-    public String getUrl() {
-        return url;
-    }
-
-    public void setUrl(String url) {
-        this.url = url;
-    }
-
-    public String getStatus() {
-        return status;
-    }
-
-    public void setStatus(String status) {
-        this.status = status;
-    }
-
     public String getRegistry() {
         return registry;
     }
@@ -88,8 +68,6 @@ public class ApplicationSpec implements KubernetesResource {
                 ", microservices=" + microservices +
                 ", registry='" + registry + '\'' +
                 ", gateway='" + gateway + '\'' +
-                ", status='" + status + '\'' +
-                ", url='" + url + '\'' +
                 '}';
     }
 
@@ -102,13 +80,11 @@ public class ApplicationSpec implements KubernetesResource {
                 Objects.equals(selector, that.selector) &&
                 Objects.equals(microservices, that.microservices) &&
                 Objects.equals(registry, that.registry) &&
-                Objects.equals(gateway, that.gateway) &&
-                Objects.equals(status, that.status) &&
-                Objects.equals(url, that.url);
+                Objects.equals(gateway, that.gateway);
     }
 
     @Override
     public int hashCode() {
-        return Objects.hash(version, selector, microservices, registry, gateway, status, url);
+        return Objects.hash(version, selector, microservices, registry, gateway);
     }
 }
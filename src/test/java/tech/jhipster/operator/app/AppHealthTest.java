@@ -0,0 +1,65 @@
+package tech.jhipster.operator.app;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class AppHealthTest {
+
+    @Test
+    public void onlyChangesAreReported() {
+        AppHealth health = new AppHealth();
+        assertTrue(health.put("ns/app", AppStatus.HEALTHY, "http://app"));
+        assertFalse(health.put("ns/app", AppStatus.HEALTHY, "http://app"));
+        assertTrue(health.put("ns/app", AppStatus.HEALTHY, "http://other"));
+        assertTrue(health.put("ns/app", AppStatus.UNHEALTHY, null));
+        assertNull(health.getUrl("ns/app"));
+        assertTrue(health.remove("ns/app"));
+        assertFalse(health.remove("ns/app"));
+    }
+
+    @Test
+    public void countsFollowTheStatusChanges() {
+        AppHealth health = new AppHealth();
+        health.put("ns/a", AppStatus.HEALTHY, "http://a");
+        health.put("ns/b", AppStatus.HEALTHY, "http://b");
+        health.put("ns/c", AppStatus.INCOMPLETE, null);
+        health.put("ns/b", AppStatus.UNHEALTHY, null);
+        assertEquals(1, health.count(AppStatus.HEALTHY));
+        assertEquals(1, health.count(AppStatus.UNHEALTHY));
+        assertEquals(1, health.count(AppStatus.INCOMPLETE));
+        health.remove("ns/c");
+        assertEquals(0, health.count(AppStatus.INCOMPLETE));
+    }
+
+    @Test
+    public void snapshotIsSharedUntilTheNextChange() {
+        AppHealth health = new AppHealth();
+        health.put("ns/b", AppStatus.HEALTHY, "http://b");
+        health.put("ns/a", AppStatus.HEALTHY, "http://a");
+        health.put("ns/c", AppStatus.UNHEALTHY, null);
+        AppHealthSnapshot snapshot = health.snapshot();
+        assertEquals(Arrays.asList("ns/a", "ns/b"), snapshot.getHealthyApps());
+        assertSame(snapshot, health.snapshot());
+        // Publishing the same health again is not a change
+        health.put("ns/a", AppStatus.HEALTHY, "http://a");
+        assertSame(snapshot, health.snapshot());
+
+        health.put("ns/a", AppStatus.UNHEALTHY, null);
+        AppHealthSnapshot next = health.snapshot();
+        assertNotSame(snapshot, next);
+        assertEquals(Collections.singletonList("ns/b"), next.getHealthyApps());
+        // Readers of the previous snapshot are not affected
+        assertEquals(Arrays.asList("ns/a", "ns/b"), snapshot.getHealthyApps());
+        assertEquals("http://a", snapshot.getUrl("ns/a"));
+    }
+
+}
@@ -0,0 +1,157 @@
+package tech.jhipster.operator.app;
+
+import io.fabric8.kubernetes.api.model.ObjectMetaBuilder;
+import org.junit.Before;
+import org.junit.Test;
+import tech.jhipster.operator.crds.app.Application;
+import tech.jhipster.operator.crds.app.ApplicationSpec;
+import tech.jhipster.operator.crds.app.MicroServiceDescr;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static tech.jhipster.operator.app.DependencyIndex.GATEWAY;
+import static tech.jhipster.operator.app.DependencyIndex.MICROSERVICE;
+import static tech.jhipster.operator.app.DependencyIndex.REGISTRY;
+import static tech.jhipster.operator.app.DependencyIndex.SERVICE;
+
+public class DependencyIndexTest {
+
+    private static final String NAMESPACE = "jhipster";
+
+    private DependencyIndex index;
+
+    @Before
+    public void setUp() {
+        index = new DependencyIndex();
+    }
+
+    @Test
+    public void newAppMissesAllItsDependencies() {
+        putApp("app", "gw", "reg", "ms");
+        assertEquals(3, index.getMissingStructure("app"));
+        assertEquals(3, index.getMissingServices("app"));
+        assertEquals(6, index.getMissing("app").size());
+    }
+
+    @Test
+    public void countersFollowTheDependenciesThatAppear() {
+        putApp("app", "gw", "reg", "ms");
+        assertEquals(Collections.singleton("app"), setAvailable(GATEWAY, "gw", true));
+        setAvailable(REGISTRY, "reg", true);
+        setAvailable(SERVICE, "gw", true);
+        assertEquals(1, index.getMissingStructure("app"));
+        assertEquals(2, index.getMissingServices("app"));
+
+        setAvailable(MICROSERVICE, "ms", true);
+        setAvailable(SERVICE, "reg", true);
+        setAvailable(SERVICE, "ms", true);
+        assertEquals(0, index.getMissingStructure("app"));
+        assertEquals(0, index.getMissingServices("app"));
+        assertTrue(index.getMissing("app").isEmpty());
+
+        setAvailable(MICROSERVICE, "ms", false);
+        assertEquals(1, index.getMissingStructure("app"));
+    }
+
+    @Test
+    public void repeatedAvailabilityDoesNotCountTwice() {
+        putApp("app", "gw", "reg", "ms");
+        setAvailable(GATEWAY, "gw", true);
+        setAvailable(GATEWAY, "gw", true);
+        assertEquals(2, index.getMissingStructure("app"));
+        setAvailable(GATEWAY, "gw", false);
+        setAvailable(GATEWAY, "gw", false);
+        assertEquals(3, index.getMissingStructure("app"));
+    }
+
+    @Test
+    public void appAddedAfterItsDependenciesStartsWithThemAvailable() {
+        setAvailable(GATEWAY, "gw", true);
+        setAvailable(SERVICE, "gw", true);
+        putApp("app", "gw", "reg", "ms");
+        assertEquals(2, index.getMissingStructure("app"));
+        assertEquals(2, index.getMissingServices("app"));
+    }
+
+    @Test
+    public void sharedDependencyReturnsEveryDependent() {
+        putApp("app1", "gw", "reg1", "ms1");
+        putApp("app2", "gw", "reg2", "ms2");
+        assertEquals(new HashSet<>(Arrays.asList("app1", "app2")), setAvailable(GATEWAY, "gw", true));
+        assertEquals(2, index.getMissingStructure("app1"));
+        assertEquals(2, index.getMissingStructure("app2"));
+    }
+
+    @Test
+    public void modifiedAppDropsTheDependenciesItNoLongerHas() {
+        putApp("app", "gw", "reg", "old");
+        putApp("app", "gw", "reg", "new");
+        assertTrue(getDependents(MICROSERVICE, "old").isEmpty());
+        assertEquals(Collections.singleton("app"), getDependents(MICROSERVICE, "new"));
+        setAvailable(MICROSERVICE, "old", true);
+        assertEquals(3, index.getMissingStructure("app"));
+    }
+
+    @Test
+    public void removedAppIsForgotten() {
+        putApp("app", "gw", "reg", "ms");
+        index.removeApp("app");
+        assertTrue(getDependents(GATEWAY, "gw").isEmpty());
+        assertTrue(setAvailable(GATEWAY, "gw", true).isEmpty());
+        assertEquals(0, index.getMissingStructure("app"));
+        assertTrue(index.getMissing("app").isEmpty());
+    }
+
+    @Test
+    public void clearAvailableCountsEverythingMissingAgain() {
+        putApp("app", "gw", "reg", "ms");
+        setAvailable(GATEWAY, "gw", true);
+        setAvailable(SERVICE, "gw", true);
+        index.clearAvailable();
+        assertEquals(3, index.getMissingStructure("app"));
+        assertEquals(3, index.getMissingServices("app"));
+    }
+
+    @Test
+    public void dependenciesAreResolvedInTheNamespaceOfTheApp() {
+        putAppIn("team-a", "team-a/app", "gw", "reg", "ms");
+        putAppIn("team-b", "team-b/app", "gw", "reg", "ms");
+        assertEquals(Collections.singleton("team-a/app"), index.setAvailable(GATEWAY, "team-a", "gw", true));
+        assertEquals(2, index.getMissingStructure("team-a/app"));
+        assertEquals(3, index.getMissingStructure("team-b/app"));
+    }
+
+    private void putApp(String appName, String gateway, String registry, String... microservices) {
+        putAppIn(NAMESPACE, appName, gateway, registry, microservices);
+    }
+
+    private void putAppIn(String namespace, String appName, String gateway, String registry, String... microservices) {
+        ApplicationSpec spec = new ApplicationSpec();
+        spec.setGateway(gateway);
+        spec.setRegistry(registry);
+        Set<MicroServiceDescr> descriptors = new LinkedHashSet<>();
+        for (String microservice : microservices) {
+            descriptors.add(new MicroServiceDescr(microservice, "microservice", microservice));
+        }
+        spec.setMicroservices(descriptors);
+        Application app = new Application();
+        app.setMetadata(new ObjectMetaBuilder().withNamespace(namespace).withName(appName.substring(appName.lastIndexOf('/') + 1)).build());
+        app.setSpec(spec);
+        index.putApp(appName, AppState.of(app));
+    }
+
+    private Set<String> setAvailable(String kind, String name, boolean exists) {
+        return index.setAvailable(kind, NAMESPACE, name, exists);
+    }
+
+    private Set<String> getDependents(String kind, String name) {
+        return index.getDependents(kind, NAMESPACE, name);
+    }
+
+}
@@ -0,0 +1,73 @@
+package tech.jhipster.operator.app;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class StatusWriteTrackerTest {
+
+    private static final String URL = "http://gateway.example.com";
+
+    private final StatusWriteTracker tracker = new StatusWriteTracker();
+
+    @Test
+    public void unknownAppNeedsAWrite() {
+        assertTrue(tracker.needsWrite("ns/app", 1L, AppStatus.HEALTHY, URL));
+        assertEquals(0, tracker.getWritesSkipped());
+    }
+
+    @Test
+    public void sameStatusIsSkipped() {
+        tracker.recordWrite("ns/app", 1L, AppStatus.HEALTHY, URL);
+        assertFalse(tracker.needsWrite("ns/app", 1L, AppStatus.HEALTHY, URL));
+        assertFalse(tracker.needsWrite("ns/app", 1L, AppStatus.HEALTHY, URL));
+        assertEquals(1, tracker.getWritesIssued());
+        assertEquals(2, tracker.getWritesSkipped());
+    }
+
+    @Test
+    public void changedStatusOrUrlNeedsAWrite() {
+        tracker.recordWrite("ns/app", 1L, AppStatus.HEALTHY, URL);
+        assertTrue(tracker.needsWrite("ns/app", 1L, AppStatus.UNHEALTHY, URL));
+        assertTrue(tracker.needsWrite("ns/app", 1L, AppStatus.HEALTHY, null));
+        assertEquals(0, tracker.getWritesSkipped());
+    }
+
+    @Test
+    public void newerGenerationNeedsAWrite() {
+        tracker.recordWrite("ns/app", 1L, AppStatus.HEALTHY, URL);
+        // Somebody else changed the app after our write
+        assertTrue(tracker.needsWrite("ns/app", 2L, AppStatus.HEALTHY, URL));
+        // Our write reflects a later generation than the one observed, or no generation is known
+        assertFalse(tracker.needsWrite("ns/app", 1L, AppStatus.HEALTHY, URL));
+        assertFalse(tracker.needsWrite("ns/app", null, AppStatus.HEALTHY, URL));
+        tracker.recordWrite("ns/app", 2L, AppStatus.HEALTHY, URL);
+        assertFalse(tracker.needsWrite("ns/app", 2L, AppStatus.HEALTHY, URL));
+    }
+
+    @Test
+    public void isWrittenIsNotCounted() {
+        tracker.recordWrite("ns/app", 1L, AppStatus.HEALTHY, URL);
+        assertTrue(tracker.isWritten("ns/app", 1L, AppStatus.HEALTHY, URL));
+        assertFalse(tracker.isWritten("ns/app", 1L, AppStatus.INCOMPLETE, URL));
+        assertEquals(0, tracker.getWritesSkipped());
+    }
+
+    @Test
+    public void existingStatusIsNotCountedAsAWrite() {
+        tracker.recordExisting("ns/app", 3L, AppStatus.INCOMPLETE, null);
+        assertFalse(tracker.needsWrite("ns/app", 3L, AppStatus.INCOMPLETE, null));
+        assertEquals(0, tracker.getWritesIssued());
+        assertEquals(1, tracker.getWritesSkipped());
+    }
+
+    @Test
+    public void forgottenAppNeedsAWrite() {
+        tracker.recordWrite("ns/app", 1L, AppStatus.HEALTHY, URL);
+        tracker.forget("ns/app");
+        assertTrue(tracker.needsWrite("ns/app", 1L, AppStatus.HEALTHY, URL));
+    }
+
+}
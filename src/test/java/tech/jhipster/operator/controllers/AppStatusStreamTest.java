@@ -0,0 +1,199 @@
+package tech.jhipster.operator.controllers;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.http.MediaType;
+import org.springframework.util.ReflectionUtils;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import tech.jhipster.operator.JHipsterOperatorConfiguration;
+import tech.jhipster.operator.app.AppService;
+import tech.jhipster.operator.app.AppStatus;
+import tech.jhipster.operator.app.AppStatusEvent;
+import tech.jhipster.operator.core.OperatorMetrics;
+
+import java.io.IOException;
+import java.lang.reflect.Field;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/*
+ * AppStatusStream with stub emitters, a subscriber is slow while its sends are held
+ */
+public class AppStatusStreamTest {
+
+    private static final int QUEUE_CAPACITY = 4;
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final AppService appService = new AppService();
+    private final AppStatusStream stream = new AppStatusStream();
+
+    @Before
+    public void startStream() {
+        OperatorMetrics metrics = new OperatorMetrics();
+        inject(metrics, "registry", registry);
+        JHipsterOperatorConfiguration config = new JHipsterOperatorConfiguration();
+        inject(config, "statusStreamQueueCapacity", QUEUE_CAPACITY);
+        inject(config, "statusStreamSenders", 2);
+        inject(stream, "appService", appService);
+        inject(stream, "operatorMetrics", metrics);
+        inject(stream, "config", config);
+        stream.init();
+    }
+
+    @After
+    public void stopStream() {
+        stream.shutdown();
+    }
+
+    @Test
+    public void subscriberGetsTheSnapshotThenTheChanges() throws InterruptedException {
+        appService.publishHealth("ns/app-1", AppStatus.HEALTHY, "http://app-1");
+        StubEmitter emitter = new StubEmitter();
+        stream.subscribe(emitter);
+        appService.publishHealth("ns/app-2", AppStatus.UNHEALTHY, null);
+        await(() -> emitter.sent.size() == 2);
+        List<?> snapshot = (List<?>) emitter.sent.get(0);
+        assertEquals("ns/app-1", ((AppStatusEvent) snapshot.get(0)).getApp());
+        assertEquals("ns/app-2", ((AppStatusEvent) emitter.sent.get(1)).getApp());
+        assertEquals(1, stream.getSubscribers());
+    }
+
+    @Test
+    public void slowSubscriberIsDroppedAndTheOthersKeepReceiving() throws InterruptedException {
+        StubEmitter slow = new StubEmitter();
+        slow.hold();
+        stream.subscribe(slow);
+        await(() -> slow.sending);
+        StubEmitter fast = new StubEmitter();
+        stream.subscribe(fast);
+        await(() -> fast.sent.size() == 1);
+        // The slow subscriber is stuck sending its snapshot, its queue fills up
+        int published = 0;
+        while (stream.getSubscribers() == 2) {
+            assertTrue("slow subscriber not dropped", published < QUEUE_CAPACITY * 2);
+            appService.publishHealth("ns/app-" + published, AppStatus.HEALTHY, null);
+            published++;
+            int expected = published + 1;
+            await(() -> fast.sent.size() == expected);
+        }
+        assertEquals(QUEUE_CAPACITY + 1, published);
+        assertEquals(1.0, registry.get("jhipster.operator.status.stream.overflows").counter().count(), 0.0);
+        appService.publishHealth("ns/app-last", AppStatus.HEALTHY, null);
+        await(() -> fast.sent.size() == QUEUE_CAPACITY + 3);
+        assertFalse(fast.completed);
+        // The sender completes the slow subscriber once its send returns
+        assertFalse(slow.completed);
+        slow.release();
+        await(() -> slow.completed);
+        assertEquals(1, slow.sent.size());
+    }
+
+    @Test
+    public void heartbeatDoesNotWaitForASlowSubscriber() throws InterruptedException {
+        StubEmitter slow = new StubEmitter();
+        slow.hold();
+        stream.subscribe(slow);
+        await(() -> slow.sending);
+        Thread heartbeats = new Thread(() -> {
+            for (int i = 0; i < QUEUE_CAPACITY * 2; i++) {
+                stream.heartbeat();
+            }
+        });
+        heartbeats.start();
+        heartbeats.join(TimeUnit.SECONDS.toMillis(5));
+        assertFalse("heartbeat blocked", heartbeats.isAlive());
+        assertEquals(0, stream.getSubscribers());
+        slow.release();
+        await(() -> slow.completed);
+    }
+
+    @Test
+    public void closedConnectionIsDroppedByTheHeartbeat() throws InterruptedException {
+        StubEmitter emitter = new StubEmitter();
+        stream.subscribe(emitter);
+        await(() -> emitter.sent.size() == 1);
+        emitter.fail();
+        stream.heartbeat();
+        await(() -> stream.getSubscribers() == 0);
+    }
+
+    /*
+     * Records the data of the sent events (heartbeats excluded), sends can be held or fail
+     */
+    private static class StubEmitter extends SseEmitter {
+
+        private final List<Object> sent = new CopyOnWriteArrayList<>();
+        private final CountDownLatch released = new CountDownLatch(1);
+        private volatile boolean held;
+        private volatile boolean failing;
+        private volatile boolean sending;
+        private volatile boolean completed;
+
+        private StubEmitter() {
+            super(0L);
+        }
+
+        private void hold() {
+            held = true;
+        }
+
+        private void release() {
+            released.countDown();
+        }
+
+        private void fail() {
+            failing = true;
+        }
+
+        @Override
+        public void send(SseEventBuilder builder) throws IOException {
+            sending = true;
+            if (held) {
+                try {
+                    released.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            if (failing) {
+                throw new IOException("Broken pipe");
+            }
+            Set<DataWithMediaType> data = builder.build();
+            for (DataWithMediaType part : data) {
+                if (MediaType.APPLICATION_JSON.equals(part.getMediaType())) {
+                    sent.add(part.getData());
+                }
+            }
+        }
+
+        @Override
+        public synchronized void complete() {
+            completed = true;
+        }
+    }
+
+    private static void inject(Object target, String fieldName, Object value) {
+        Field field = ReflectionUtils.findField(target.getClass(), fieldName);
+        ReflectionUtils.makeAccessible(field);
+        ReflectionUtils.setField(field, target, value);
+    }
+
+    private static void await(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(5);
+        while (!condition.getAsBoolean()) {
+            assertTrue("timed out", System.currentTimeMillis() < deadline);
+            Thread.sleep(10);
+        }
+    }
+
+}
@@ -0,0 +1,109 @@
+package tech.jhipster.operator.core;
+
+import org.junit.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class AdaptiveConcurrencyLimitTest {
+
+    private static final long THRESHOLD = TimeUnit.SECONDS.toNanos(1);
+    private static final long FAST = TimeUnit.MILLISECONDS.toNanos(10);
+
+    @Test
+    public void initialLimitIsKeptBetweenMinAndMax() {
+        assertEquals(8, new AdaptiveConcurrencyLimit(8, 1, 64, THRESHOLD).getLimit());
+        assertEquals(2, new AdaptiveConcurrencyLimit(0, 2, 64, THRESHOLD).getLimit());
+        assertEquals(64, new AdaptiveConcurrencyLimit(100, 1, 64, THRESHOLD).getLimit());
+    }
+
+    @Test
+    public void fastCallsGrowTheLimitUpToMax() throws InterruptedException {
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(4, 1, 10, THRESHOLD);
+        // A round of fast calls adds 1/limit for every call that competed for the limit
+        round(limit, FAST, false);
+        round(limit, FAST, false);
+        assertEquals(5, limit.getLimit());
+        for (int i = 0; i < 100; i++) {
+            round(limit, FAST, false);
+        }
+        assertEquals(10, limit.getLimit());
+    }
+
+    @Test
+    public void callsThatDidNotUseTheLimitDoNotGrowIt() throws InterruptedException {
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(8, 1, 64, THRESHOLD);
+        for (int i = 0; i < 100; i++) {
+            limit.acquire();
+            limit.release(FAST, false);
+        }
+        assertEquals(8, limit.getLimit());
+    }
+
+    @Test
+    public void overloadShrinksTheLimitDownToMin() throws InterruptedException {
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(10, 2, 64, THRESHOLD);
+        limit.acquire();
+        limit.release(0, true);
+        assertEquals(7, limit.getLimit());
+        for (int i = 0; i < 20; i++) {
+            limit.acquire();
+            limit.release(0, true);
+        }
+        assertEquals(2, limit.getLimit());
+    }
+
+    @Test
+    public void slowCallsShrinkTheLimitOncePerRoundTrip() throws InterruptedException {
+        long threshold = TimeUnit.MILLISECONDS.toNanos(1);
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(10, 1, 64, threshold);
+        Thread.sleep(5);
+        // Slow calls that were in flight together only count once
+        for (int i = 0; i < 4; i++) {
+            limit.acquire();
+        }
+        for (int i = 0; i < 4; i++) {
+            limit.release(2 * threshold, false);
+        }
+        assertEquals(7, limit.getLimit());
+        assertEquals(0, limit.getInFlight());
+    }
+
+    @Test
+    public void callersOverTheLimitWaitForASlot() throws InterruptedException {
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(1, 1, 1, THRESHOLD);
+        limit.acquire();
+        CountDownLatch acquired = new CountDownLatch(1);
+        Thread caller = new Thread(() -> {
+            try {
+                limit.acquire();
+                acquired.countDown();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        caller.start();
+        assertFalse(acquired.await(100, TimeUnit.MILLISECONDS));
+        limit.release(FAST, false);
+        assertTrue(acquired.await(5, TimeUnit.SECONDS));
+        assertEquals(1, limit.getInFlight());
+    }
+
+    /*
+     * Use every slot of the limit, then release them
+     */
+    private static void round(AdaptiveConcurrencyLimit limit, long latencyNanos, boolean overloaded) throws InterruptedException {
+        int slots = limit.getLimit();
+        for (int i = 0; i < slots; i++) {
+            limit.acquire();
+        }
+        for (int i = 0; i < slots; i++) {
+            limit.release(latencyNanos, overloaded);
+        }
+    }
+
+}
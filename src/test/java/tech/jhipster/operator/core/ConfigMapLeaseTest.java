@@ -0,0 +1,103 @@
+package tech.jhipster.operator.core;
+
+import io.fabric8.kubernetes.client.KubernetesClient;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import tech.jhipster.operator.fake.FakeKubernetesApi;
+
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/*
+ * ConfigMapLease against the in-process fake API Server, every replica has its own clock
+ */
+public class ConfigMapLeaseTest {
+
+    private static final String NAMESPACE = "test";
+    private static final String LEASE = "leader";
+    private static final long LEASE_DURATION = 15000;
+    private static final long RENEW_DEADLINE = LEASE_DURATION * 2 / 3;
+
+    private final FakeKubernetesApi api = new FakeKubernetesApi();
+    private final AtomicLong clockA = new AtomicLong(1000000);
+    private final AtomicLong clockB = new AtomicLong(5000000);
+    private KubernetesClient client;
+    private ConfigMapLease leaseA;
+    private ConfigMapLease leaseB;
+
+    @Before
+    public void startApi() throws IOException {
+        api.start();
+        client = api.createClient(NAMESPACE);
+        leaseA = new ConfigMapLease(client, NAMESPACE, LEASE, "replica-a", LEASE_DURATION, clockA::get);
+        leaseB = new ConfigMapLease(client, NAMESPACE, LEASE, "replica-b", LEASE_DURATION, clockB::get);
+    }
+
+    @After
+    public void stopApi() throws IOException {
+        client.close();
+        api.stop();
+    }
+
+    @Test
+    public void onlyOneReplicaAcquiresTheLease() {
+        assertTrue(leaseA.tryAcquireOrRenew());
+        assertFalse(leaseB.tryAcquireOrRenew());
+        assertTrue(leaseA.isLeader());
+        assertFalse(leaseB.isLeader());
+    }
+
+    @Test
+    public void leaderStepsDownWhenTheLeaseIsNotRenewed() {
+        assertTrue(leaseA.tryAcquireOrRenew());
+        clockA.addAndGet(RENEW_DEADLINE - 1);
+        assertTrue(leaseA.isLeader());
+        // The renew loop didn't run, nothing was read or written
+        api.resetRequests();
+        clockA.incrementAndGet();
+        assertFalse(leaseA.isLeader());
+        assertEquals(0, api.getTotalRequests());
+    }
+
+    @Test
+    public void renewalKeepsTheLeaderLeading() {
+        assertTrue(leaseA.tryAcquireOrRenew());
+        for (int i = 0; i < 5; i++) {
+            clockA.addAndGet(RENEW_DEADLINE / 2);
+            assertTrue(leaseA.tryAcquireOrRenew());
+            clockB.addAndGet(RENEW_DEADLINE / 2);
+            assertFalse(leaseB.tryAcquireOrRenew());
+        }
+        assertTrue(leaseA.isLeader());
+    }
+
+    @Test
+    public void expiredLeaseIsTakenOverBeforeTheOldLeaderRenews() {
+        assertTrue(leaseA.tryAcquireOrRenew());
+        assertFalse(leaseB.tryAcquireOrRenew());
+        // Replica A is stuck: it stepped down before replica B sees the lease expired
+        clockA.addAndGet(RENEW_DEADLINE);
+        assertFalse(leaseA.isLeader());
+        clockB.addAndGet(LEASE_DURATION - 1);
+        assertFalse(leaseB.tryAcquireOrRenew());
+        clockB.incrementAndGet();
+        assertTrue(leaseB.tryAcquireOrRenew());
+        assertFalse(leaseA.tryAcquireOrRenew());
+        assertFalse(leaseA.isLeader());
+        assertTrue(leaseB.isLeader());
+    }
+
+    @Test
+    public void releasedLeaseIsAcquiredRightAway() {
+        assertTrue(leaseA.tryAcquireOrRenew());
+        leaseA.release();
+        assertFalse(leaseA.isLeader());
+        assertTrue(leaseB.tryAcquireOrRenew());
+    }
+
+}
@@ -0,0 +1,125 @@
+package tech.jhipster.operator.core;
+
+import io.fabric8.kubernetes.client.Watcher;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class EventRingTest {
+
+    @Test
+    public void eventsAreTakenInOrder() throws InterruptedException {
+        EventRing<String> ring = new EventRing<>(4);
+        ring.offer(Watcher.Action.ADDED, "a");
+        ring.offer(Watcher.Action.MODIFIED, "b");
+        ring.offer(Watcher.Action.DELETED, "c");
+        List<String> taken = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            ring.take((action, resource) -> taken.add(action + " " + resource));
+        }
+        assertEquals(Arrays.asList("ADDED a", "MODIFIED b", "DELETED c"), taken);
+        assertEquals(0, ring.size());
+    }
+
+    @Test
+    public void offerFailsWhenFull() throws InterruptedException {
+        EventRing<String> ring = new EventRing<>(2);
+        assertTrue(ring.offer(Watcher.Action.ADDED, "a"));
+        assertTrue(ring.offer(Watcher.Action.ADDED, "b"));
+        assertFalse(ring.offer(Watcher.Action.ADDED, "c"));
+        assertEquals(2, ring.size());
+        // A slot is free again once an event was taken, and the ring wraps around
+        ring.take((action, resource) -> { });
+        assertTrue(ring.offer(Watcher.Action.ADDED, "c"));
+        List<String> taken = new ArrayList<>();
+        ring.take((action, resource) -> taken.add(resource));
+        ring.take((action, resource) -> taken.add(resource));
+        assertEquals(Arrays.asList("b", "c"), taken);
+    }
+
+    @Test
+    public void awaitDrainedWaitsForTheEventBeingApplied() throws InterruptedException {
+        EventRing<String> ring = new EventRing<>(4);
+        ring.offer(Watcher.Action.ADDED, "a");
+        CountDownLatch applying = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Thread consumer = new Thread(() -> {
+            try {
+                ring.take((action, resource) -> {
+                    applying.countDown();
+                    try {
+                        release.await();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                });
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        consumer.start();
+        assertTrue(applying.await(5, TimeUnit.SECONDS));
+        // The ring is empty, but the event is still being applied
+        assertEquals(0, ring.size());
+        CountDownLatch drained = new CountDownLatch(1);
+        Thread waiter = new Thread(() -> {
+            try {
+                ring.awaitDrained();
+                drained.countDown();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        waiter.start();
+        assertFalse(drained.await(100, TimeUnit.MILLISECONDS));
+        release.countDown();
+        assertTrue(drained.await(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void clearReleasesTheWaiters() throws InterruptedException {
+        EventRing<String> ring = new EventRing<>(4);
+        ring.offer(Watcher.Action.ADDED, "a");
+        CountDownLatch drained = new CountDownLatch(1);
+        Thread waiter = new Thread(() -> {
+            try {
+                ring.awaitDrained();
+                drained.countDown();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        waiter.start();
+        assertFalse(drained.await(100, TimeUnit.MILLISECONDS));
+        ring.clear();
+        assertTrue(drained.await(5, TimeUnit.SECONDS));
+        assertEquals(0, ring.size());
+        assertTrue(ring.offer(Watcher.Action.ADDED, "b"));
+    }
+
+    @Test
+    public void takeBlocksUntilAnEventIsOffered() throws InterruptedException {
+        EventRing<String> ring = new EventRing<>(1);
+        CountDownLatch taken = new CountDownLatch(1);
+        Thread consumer = new Thread(() -> {
+            try {
+                ring.take((action, resource) -> taken.countDown());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        consumer.start();
+        assertFalse(taken.await(100, TimeUnit.MILLISECONDS));
+        ring.offer(Watcher.Action.ADDED, "a");
+        assertTrue(taken.await(5, TimeUnit.SECONDS));
+    }
+
+}
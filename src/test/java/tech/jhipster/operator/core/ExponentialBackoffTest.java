@@ -0,0 +1,104 @@
+package tech.jhipster.operator.core;
+
+import org.junit.Test;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class ExponentialBackoffTest {
+
+    @Test
+    public void delayDoublesOnEveryFailureWithinItsJitter() {
+        ExponentialBackoff backoff = new ExponentialBackoff(100, 100000);
+        long expected = 100;
+        for (int i = 1; i <= 8; i++) {
+            long delay = backoff.nextDelay("ns/app");
+            // Half of the delay is randomized
+            assertTrue("delay " + delay + " for failure " + i, delay >= expected / 2 && delay <= expected);
+            assertEquals(i, backoff.getFailures("ns/app"));
+            expected *= 2;
+        }
+    }
+
+    @Test
+    public void delayIsCappedAtTheMaxDelay() {
+        ExponentialBackoff backoff = new ExponentialBackoff(100, 1000);
+        for (int i = 0; i < 100; i++) {
+            long delay = backoff.nextDelay("ns/app");
+            assertTrue("delay " + delay, delay <= 1000);
+        }
+        // The exponent is capped, the shift never overflows to a negative or zero delay
+        for (int i = 0; i < 100; i++) {
+            long delay = backoff.nextDelay("ns/app");
+            assertTrue("delay " + delay, delay >= 500 && delay <= 1000);
+        }
+    }
+
+    @Test
+    public void jitterSpreadsKeysThatFailedTogether() {
+        ExponentialBackoff backoff = new ExponentialBackoff(1000, 100000);
+        Set<Long> delays = new HashSet<>();
+        for (int i = 0; i < 50; i++) {
+            delays.add(backoff.nextDelay("ns/app-" + i));
+        }
+        assertTrue("delays " + delays, delays.size() > 1);
+        for (long delay : delays) {
+            assertTrue("delay " + delay, delay >= 500 && delay <= 1000);
+        }
+    }
+
+    @Test
+    public void forgetResetsTheKey() {
+        ExponentialBackoff backoff = new ExponentialBackoff(100, 100000);
+        backoff.nextDelay("ns/app", "status");
+        backoff.nextDelay("ns/app", "status");
+        backoff.nextDelay("ns/other");
+        backoff.forget("ns/app");
+        assertFalse(backoff.isBackingOff("ns/app"));
+        assertEquals(0, backoff.getFailures("ns/app"));
+        assertTrue(backoff.isBackingOff("ns/other"));
+        // Its causes are forgotten too, the next failure starts from the initial delay
+        long delay = backoff.nextDelay("ns/app");
+        assertTrue("delay " + delay, delay >= 50 && delay <= 100);
+        backoff.succeeded("ns/app");
+        assertFalse(backoff.isBackingOff("ns/app"));
+    }
+
+    @Test
+    public void writeFailuresKeepGrowingAcrossReconcileSuccesses() {
+        ExponentialBackoff backoff = new ExponentialBackoff(100, 100000);
+        // The write fails, the reconcile that queues it again succeeds, and the write fails again
+        long first = backoff.nextDelay("ns/app", "status");
+        backoff.succeeded("ns/app");
+        long second = backoff.nextDelay("ns/app", "status");
+        backoff.succeeded("ns/app");
+        long third = backoff.nextDelay("ns/app", "status");
+        assertTrue("delay " + first, first >= 50 && first <= 100);
+        assertTrue("delay " + second, second >= 100 && second <= 200);
+        assertTrue("delay " + third, third >= 200 && third <= 400);
+        assertEquals(3, backoff.getFailures("ns/app"));
+        assertTrue(backoff.isBackingOff("ns/app"));
+    }
+
+    @Test
+    public void keyIsResetWhenEveryCauseRecovered() {
+        ExponentialBackoff backoff = new ExponentialBackoff(100, 100000);
+        backoff.nextDelay("ns/app", "status");
+        backoff.nextDelay("ns/app", "link");
+        backoff.recovered("ns/app", "status");
+        assertTrue(backoff.isBackingOff("ns/app"));
+        backoff.succeeded("ns/app");
+        assertEquals(2, backoff.getFailures("ns/app"));
+        backoff.recovered("ns/app", "link");
+        assertFalse(backoff.isBackingOff("ns/app"));
+        // A cause that never failed changes nothing
+        backoff.nextDelay("ns/app");
+        backoff.recovered("ns/app", "status");
+        assertTrue(backoff.isBackingOff("ns/app"));
+    }
+
+}
@@ -0,0 +1,57 @@
+package tech.jhipster.operator.core;
+
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.util.ReflectionUtils;
+
+import java.lang.reflect.Field;
+import java.util.Collection;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+public class OperatorMetricsTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final OperatorMetrics metrics = new OperatorMetrics();
+
+    @Before
+    public void injectRegistry() {
+        Field field = ReflectionUtils.findField(OperatorMetrics.class, "registry");
+        ReflectionUtils.makeAccessible(field);
+        ReflectionUtils.setField(field, metrics, registry);
+    }
+
+    @Test
+    public void everyReconcilePassIsTimedByOutcome() {
+        metrics.reconcileFinished(OperatorMetrics.OUTCOME_SUCCESS, TimeUnit.MILLISECONDS.toNanos(10));
+        metrics.reconcileFinished(OperatorMetrics.OUTCOME_SUCCESS, TimeUnit.MILLISECONDS.toNanos(30));
+        metrics.reconcileFinished(OperatorMetrics.OUTCOME_RETRY, TimeUnit.MILLISECONDS.toNanos(5));
+        metrics.reconcileFinished(OperatorMetrics.OUTCOME_ERROR, TimeUnit.MILLISECONDS.toNanos(1));
+
+        Timer success = registry.get("jhipster.operator.reconcile").tag("outcome", OperatorMetrics.OUTCOME_SUCCESS).timer();
+        assertEquals(2, success.count());
+        assertEquals(40, success.totalTime(TimeUnit.MILLISECONDS), 0.001);
+        assertEquals(30, success.max(TimeUnit.MILLISECONDS), 0.001);
+        assertEquals(1, registry.get("jhipster.operator.reconcile").tag("outcome", OperatorMetrics.OUTCOME_RETRY).timer().count());
+        assertEquals(1, registry.get("jhipster.operator.reconcile").tag("outcome", OperatorMetrics.OUTCOME_ERROR).timer().count());
+    }
+
+    @Test
+    public void reconcileTimerIsNotTaggedByApp() {
+        for (int i = 0; i < 100; i++) {
+            metrics.reconcileFinished(OperatorMetrics.OUTCOME_SUCCESS, TimeUnit.MILLISECONDS.toNanos(1));
+        }
+        // One timer per outcome, however many apps were reconciled
+        Collection<Timer> timers = registry.get("jhipster.operator.reconcile").timers();
+        assertEquals(1, timers.size());
+        Meter.Id id = timers.iterator().next().getId();
+        assertEquals(1, id.getTags().size());
+        assertNull(id.getTag("app"));
+    }
+
+}
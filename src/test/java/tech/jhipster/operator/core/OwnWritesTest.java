@@ -0,0 +1,69 @@
+package tech.jhipster.operator.core;
+
+import io.fabric8.kubernetes.api.model.HasMetadata;
+import io.fabric8.kubernetes.api.model.ServiceBuilder;
+import io.fabric8.kubernetes.client.Watcher;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class OwnWritesTest {
+
+    private final OwnWrites ownWrites = new OwnWrites();
+
+    @Test
+    public void echoOfAStatusWriteIsDroppedOnce() {
+        ownWrites.recordWrite("Application", resource("app", "5"));
+        assertTrue(ownWrites.isEcho("Application", Watcher.Action.MODIFIED, resource("app", "5")));
+        assertEquals(0, ownWrites.size());
+        // A second event with the same version is not ours anymore (relist)
+        assertFalse(ownWrites.isEcho("Application", Watcher.Action.MODIFIED, resource("app", "5")));
+    }
+
+    @Test
+    public void echoOfAnOwnerReferenceWriteIsDropped() {
+        ownWrites.recordWrite("MicroService", resource("invoice", "7"));
+        // Same name and version, another kind
+        assertFalse(ownWrites.isEcho("Gateway", Watcher.Action.MODIFIED, resource("invoice", "7")));
+        assertTrue(ownWrites.isEcho("MicroService", Watcher.Action.MODIFIED, resource("invoice", "7")));
+    }
+
+    @Test
+    public void realChangeOfTheSameObjectGetsThrough() {
+        ownWrites.recordWrite("Application", resource("app", "5"));
+        // An older event still queued before our echo, the write is kept
+        assertFalse(ownWrites.isEcho("Application", Watcher.Action.MODIFIED, resource("app", "4")));
+        assertEquals(1, ownWrites.size());
+        assertTrue(ownWrites.isEcho("Application", Watcher.Action.MODIFIED, resource("app", "5")));
+        // Somebody else changed the app after our write
+        ownWrites.recordWrite("Application", resource("app", "8"));
+        assertFalse(ownWrites.isEcho("Application", Watcher.Action.MODIFIED, resource("app", "9")));
+        assertEquals(0, ownWrites.size());
+    }
+
+    @Test
+    public void echoBeforeTheWriteReturnedIsNotKeptForever() {
+        // The echo was handled as any other event, the write returns afterwards
+        assertFalse(ownWrites.isEcho("Application", Watcher.Action.MODIFIED, resource("app", "5")));
+        ownWrites.recordWrite("Application", resource("app", "5"));
+        assertEquals(1, ownWrites.size());
+        assertFalse(ownWrites.isEcho("Application", Watcher.Action.MODIFIED, resource("app", "6")));
+        assertEquals(0, ownWrites.size());
+    }
+
+    @Test
+    public void onlyModifiedEventsAreEchoes() {
+        ownWrites.recordWrite("Application", resource("app", "5"));
+        assertFalse(ownWrites.isEcho("Application", Watcher.Action.ADDED, resource("app", "5")));
+        assertFalse(ownWrites.isEcho("Application", Watcher.Action.DELETED, resource("app", "5")));
+        assertEquals(0, ownWrites.size());
+    }
+
+    private static HasMetadata resource(String name, String resourceVersion) {
+        return new ServiceBuilder().withNewMetadata().withName(name).withNamespace("test").withResourceVersion(resourceVersion)
+                .endMetadata().build();
+    }
+
+}
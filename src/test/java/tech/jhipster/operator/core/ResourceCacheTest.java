@@ -0,0 +1,229 @@
+package tech.jhipster.operator.core;
+
+import io.fabric8.kubernetes.api.model.Service;
+import io.fabric8.kubernetes.api.model.ServiceBuilder;
+import io.fabric8.kubernetes.api.model.ServiceList;
+import io.fabric8.kubernetes.client.HttpClientAware;
+import io.fabric8.kubernetes.client.KubernetesClient;
+import io.fabric8.kubernetes.client.KubernetesClientException;
+import io.fabric8.kubernetes.client.utils.Serialization;
+import okhttp3.HttpUrl;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.Response;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import tech.jhipster.operator.fake.FakeKubernetesApi;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/*
+ * ResourceCache against the in-process fake API Server, with K8s Services
+ */
+public class ResourceCacheTest {
+
+    private static final String NAMESPACE = "test";
+    private static final String SERVICES = FakeKubernetesApi.servicesPath(NAMESPACE);
+
+    private final FakeKubernetesApi api = new FakeKubernetesApi();
+    private final List<String> events = new CopyOnWriteArrayList<>();
+    private KubernetesClient client;
+    private ResourceCache<Service, ServiceList> cache;
+
+    @Before
+    public void startApi() throws IOException {
+        api.start();
+        client = api.createClient(NAMESPACE);
+    }
+
+    @After
+    public void stopApi() throws IOException {
+        if (cache != null) {
+            cache.stop();
+        }
+        client.close();
+        api.stop();
+    }
+
+    @Test
+    public void listsEveryPageOfTheContinueTokens() {
+        seed("a", "b", "c", "d", "e");
+        cache = newCache(2, ResourceCache.DEFAULT_QUEUE_CAPACITY);
+        List<Integer> pages = new ArrayList<>();
+        cache.start(page -> pages.add(page.size()));
+        assertEquals(Arrays.asList(2, 2, 1), pages);
+        assertEquals(5, cache.list().size());
+        assertEquals(Long.valueOf(3), api.getRequests().get("list services"));
+        assertNotNull(cache.getResourceVersion());
+    }
+
+    @Test
+    public void watchEventsUpdateTheCacheAndReachTheListeners() throws InterruptedException {
+        seed("a");
+        startCache(ResourceCache.DEFAULT_QUEUE_CAPACITY);
+        api.create(SERVICES, service("b"));
+        api.delete(SERVICES, "a");
+        await(() -> events.size() == 2);
+        assertEquals(Arrays.asList("ADDED b", "DELETED a"), events);
+        assertNull(cache.get(NAMESPACE, "a"));
+        assertNotNull(cache.get(NAMESPACE, "b"));
+    }
+
+    @Test
+    public void relistAfterGoneNotifiesTheDifferences() throws InterruptedException {
+        seed("a", "b", "c");
+        startCache(ResourceCache.DEFAULT_QUEUE_CAPACITY);
+        // Changes that the watch never saw
+        api.forget(SERVICES, "b");
+        api.seed(SERVICES, service("c"));
+        api.seed(SERVICES, service("d"));
+        api.failWatches(410, "Gone");
+        await(() -> events.size() == 3);
+        assertTrue(events.containsAll(Arrays.asList("DELETED b", "MODIFIED c", "ADDED d")));
+        assertNull(cache.get(NAMESPACE, "b"));
+        assertNotNull(cache.get(NAMESPACE, "d"));
+        assertEquals(Long.valueOf(2), api.getRequests().get("list services"));
+        // Watching again from the new list
+        api.create(SERVICES, service("e"));
+        await(() -> cache.get(NAMESPACE, "e") != null);
+    }
+
+    @Test
+    public void droppedWatchIsResumedFromTheLastResourceVersion() throws InterruptedException {
+        seed("a");
+        startCache(ResourceCache.DEFAULT_QUEUE_CAPACITY);
+        api.create(SERVICES, service("b"));
+        await(() -> events.contains("ADDED b"));
+        String seenVersion = cache.getResourceVersion();
+        // Written while the watch is down, it is replayed from the resource version of "b"
+        api.seed(SERVICES, service("c"));
+        api.dropWatches();
+        // The dispatcher can store "c" before the watcher moved the resource version
+        await(() -> cache.get(NAMESPACE, "c") != null
+                && Long.parseLong(cache.getResourceVersion()) > Long.parseLong(seenVersion));
+        assertEquals(Long.valueOf(1), api.getRequests().get("list services"));
+        assertEquals(Long.valueOf(2), api.getRequests().get("watch services"));
+    }
+
+    @Test
+    public void errorEventsAreIgnored() throws InterruptedException {
+        seed("a");
+        startCache(ResourceCache.DEFAULT_QUEUE_CAPACITY);
+        api.failWatches(500, "InternalError");
+        api.create(SERVICES, service("b"));
+        await(() -> events.contains("ADDED b"));
+        assertEquals(Arrays.asList("ADDED b"), events);
+        assertEquals(2, cache.list().size());
+    }
+
+    @Test
+    public void overflowListsAgain() throws InterruptedException {
+        seed("a");
+        cache = newCache(0, 2);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger overflows = new AtomicInteger();
+        cache.addListener((action, service) -> {
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        cache.addOverflowListener(overflows::incrementAndGet);
+        cache.start();
+        awaitWatch();
+        // The dispatcher is stuck on the first event, the ring (2) fills up with the next ones
+        for (int i = 0; i < 10; i++) {
+            api.create(SERVICES, service("s" + i));
+        }
+        await(() -> overflows.get() == 1);
+        release.countDown();
+        await(() -> cache.list().size() == 11);
+        await(() -> Long.valueOf(2).equals(api.getRequests().get("list services")));
+        assertEquals(1, overflows.get());
+        // The relist watches again
+        awaitWatch();
+        api.create(SERVICES, service("after"));
+        await(() -> cache.get(NAMESPACE, "after") != null);
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void stoppedCacheCannotBeStarted() {
+        cache = newCache(0, ResourceCache.DEFAULT_QUEUE_CAPACITY);
+        cache.stop();
+        cache.start();
+    }
+
+    private void startCache(int queueCapacity) throws InterruptedException {
+        cache = newCache(0, queueCapacity);
+        cache.addListener((action, service) -> events.add(action + " " + service.getMetadata().getName()));
+        cache.start();
+        assertFalse(cache.list().isEmpty());
+        awaitWatch();
+    }
+
+    /*
+     * The watch is opened asynchronously, changes made before the API Server has it would be replayed as MODIFIED
+     */
+    private void awaitWatch() throws InterruptedException {
+        await(() -> api.getOpenWatches() == 1);
+    }
+
+    private ResourceCache<Service, ServiceList> newCache(int pageSize, int queueCapacity) {
+        return new ResourceCache<>("Service", client.services().inNamespace(NAMESPACE), (pageSize > 0) ? pager() : null, pageSize,
+                s -> s, queueCapacity);
+    }
+
+    /*
+     * Pages of Services, the fabric8 client of this version has no limit/continue on its lists
+     */
+    private ResourceCache.Pager<ServiceList> pager() {
+        OkHttpClient http = ((HttpClientAware) client).getHttpClient();
+        return (limit, continueToken) -> {
+            HttpUrl.Builder url = HttpUrl.parse(api.getUrl() + SERVICES.substring(1)).newBuilder()
+                    .addQueryParameter("limit", String.valueOf(limit));
+            if (continueToken != null) {
+                url.addQueryParameter("continue", continueToken);
+            }
+            try (Response response = http.newCall(new Request.Builder().url(url.build()).build()).execute()) {
+                return Serialization.unmarshal(response.body().byteStream(), ServiceList.class);
+            } catch (IOException e) {
+                throw KubernetesClientException.launderThrowable(e);
+            }
+        };
+    }
+
+    private void seed(String... names) {
+        for (String name : names) {
+            api.seed(SERVICES, service(name));
+        }
+    }
+
+    private static Service service(String name) {
+        return new ServiceBuilder().withNewMetadata().withName(name).withNamespace(NAMESPACE).endMetadata().build();
+    }
+
+    private static void await(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(10);
+        while (!condition.getAsBoolean()) {
+            assertTrue("timed out", System.currentTimeMillis() < deadline);
+            Thread.sleep(20);
+        }
+    }
+
+}
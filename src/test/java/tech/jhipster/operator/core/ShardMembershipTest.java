@@ -0,0 +1,124 @@
+package tech.jhipster.operator.core;
+
+import io.fabric8.kubernetes.client.KubernetesClient;
+import org.junit.Test;
+import tech.jhipster.operator.fake.FakeKubernetesApi;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class ShardMembershipTest {
+
+    private static final int KEYS = 10000;
+
+    @Test
+    public void assignmentDoesNotDependOnTheMembersOrder() {
+        List<String> members = Arrays.asList("replica-a", "replica-b", "replica-c");
+        List<String> reversed = new ArrayList<>(members);
+        Collections.reverse(reversed);
+        for (int i = 0; i < KEYS; i++) {
+            String key = "ns/app-" + i;
+            assertEquals(ShardMembership.owner(key, members), ShardMembership.owner(key, reversed));
+            assertEquals(ShardMembership.owner(key, members), ShardMembership.owner(key, members));
+        }
+    }
+
+    @Test
+    public void keysAreSpreadEvenly() {
+        List<String> members = Arrays.asList("replica-a", "replica-b", "replica-c", "replica-d");
+        Map<String, Integer> owned = owners(members);
+        for (String member : members) {
+            int count = owned.getOrDefault(member, 0);
+            assertTrue(member + " owns " + count, count > KEYS / 4 * 0.9 && count < KEYS / 4 * 1.1);
+        }
+    }
+
+    @Test
+    public void joiningMemberOnlyTakesItsShareOfTheKeys() {
+        List<String> before = Arrays.asList("replica-a", "replica-b", "replica-c");
+        List<String> after = Arrays.asList("replica-a", "replica-b", "replica-c", "replica-d");
+        int moved = 0;
+        for (int i = 0; i < KEYS; i++) {
+            String key = "ns/app-" + i;
+            String previous = ShardMembership.owner(key, before);
+            String next = ShardMembership.owner(key, after);
+            if (!previous.equals(next)) {
+                // Keys only move to the new member
+                assertEquals("replica-d", next);
+                moved++;
+            }
+        }
+        assertTrue("moved " + moved, moved > KEYS / 4 * 0.9 && moved < KEYS / 4 * 1.1);
+    }
+
+    @Test
+    public void leavingMemberOnlyGivesAwayItsKeys() {
+        List<String> before = Arrays.asList("replica-a", "replica-b", "replica-c");
+        List<String> after = Arrays.asList("replica-a", "replica-c");
+        for (int i = 0; i < KEYS; i++) {
+            String key = "ns/app-" + i;
+            String previous = ShardMembership.owner(key, before);
+            if (!previous.equals("replica-b")) {
+                assertEquals(previous, ShardMembership.owner(key, after));
+            }
+        }
+    }
+
+    @Test
+    public void singleMemberOwnsEveryKey() {
+        assertEquals(Collections.singletonMap("replica-a", KEYS), owners(Collections.singletonList("replica-a")));
+        assertEquals(null, ShardMembership.owner("ns/app", Collections.emptyList()));
+    }
+
+    @Test
+    public void replicaStopsBeingAMemberWhenItsHeartbeatIsLate() throws IOException {
+        FakeKubernetesApi api = new FakeKubernetesApi();
+        api.start();
+        KubernetesClient client = api.createClient("test");
+        try {
+            AtomicLong clockA = new AtomicLong(1000000);
+            AtomicLong clockB = new AtomicLong(5000000);
+            ShardMembership a = new ShardMembership(client, "test", "members", "replica-a", 15000, clockA::get);
+            ShardMembership b = new ShardMembership(client, "test", "members", "replica-b", 15000, clockB::get);
+            assertFalse(a.isMember());
+            a.heartbeat(false);
+            b.heartbeat(false);
+            a.heartbeat(false);
+            b.heartbeat(false);
+            assertTrue(a.isMember());
+            assertEquals(Arrays.asList("replica-a", "replica-b"), a.getLiveMembers());
+            assertEquals(Arrays.asList("replica-a", "replica-b"), b.getLiveMembers());
+            // Replica A doesn't count itself in past the renew deadline, before B sees it gone (lease duration)
+            clockA.addAndGet(10000);
+            assertFalse(a.isMember());
+            clockB.addAndGet(14999);
+            b.heartbeat(true);
+            assertEquals(Arrays.asList("replica-a", "replica-b"), b.getLiveMembers());
+            clockB.addAndGet(1);
+            b.heartbeat(true);
+            assertEquals(Collections.singletonList("replica-b"), b.getLiveMembers());
+        } finally {
+            client.close();
+            api.stop();
+        }
+    }
+
+    private static Map<String, Integer> owners(List<String> members) {
+        Map<String, Integer> owned = new HashMap<>();
+        for (int i = 0; i < KEYS; i++) {
+            owned.merge(ShardMembership.owner("ns/app-" + i, members), 1, Integer::sum);
+        }
+        return owned;
+    }
+
+}
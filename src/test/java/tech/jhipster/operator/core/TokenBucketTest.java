@@ -0,0 +1,86 @@
+package tech.jhipster.operator.core;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/*
+ * The bucket reads a fake clock, only acquire() waits for real
+ */
+public class TokenBucketTest {
+
+    private static final long MS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    private final AtomicLong now = new AtomicLong(1000 * MS);
+
+    @Test
+    public void burstIsServedWithoutWaiting() {
+        TokenBucket bucket = new TokenBucket(1, 5, now::get);
+        for (int i = 0; i < 5; i++) {
+            assertEquals(0, bucket.reserve());
+        }
+        assertEquals(1000 * MS, bucket.reserve());
+    }
+
+    @Test
+    public void emptyBucketWaitsForTheNextToken() {
+        TokenBucket bucket = new TokenBucket(10, 1, now::get);
+        assertEquals(0, bucket.reserve());
+        assertEquals(100 * MS, bucket.reserve());
+        // The waiting caller took the token in advance: 40ms later the next token is 160ms away
+        now.addAndGet(40 * MS);
+        assertEquals(160 * MS, bucket.reserve());
+    }
+
+    @Test
+    public void concurrentCallersReserveSuccessiveTokens() throws Exception {
+        TokenBucket bucket = new TokenBucket(10, 1, now::get);
+        bucket.reserve();
+        long[] waits = new long[2];
+        Thread[] callers = new Thread[2];
+        for (int i = 0; i < callers.length; i++) {
+            int caller = i;
+            callers[i] = new Thread(() -> waits[caller] = bucket.reserve());
+            callers[i].start();
+        }
+        for (Thread caller : callers) {
+            caller.join();
+        }
+        Arrays.sort(waits);
+        // One gets the next token, the other one the token after it: the rate is never exceeded
+        assertEquals(100 * MS, waits[0]);
+        assertEquals(200 * MS, waits[1]);
+    }
+
+    @Test
+    public void tokensAreRefilledUpToTheBurst() {
+        TokenBucket bucket = new TokenBucket(100, 2, now::get);
+        bucket.reserve();
+        bucket.reserve();
+        // 50 tokens worth of time, but the bucket only holds 2
+        now.addAndGet(500 * MS);
+        assertEquals(0, bucket.reserve());
+        assertEquals(0, bucket.reserve());
+        assertEquals(10 * MS, bucket.reserve());
+    }
+
+    @Test
+    public void acquireWaitsForTheReservedToken() throws InterruptedException {
+        TokenBucket bucket = new TokenBucket(10, 1, now::get);
+        assertEquals(0, bucket.acquire());
+        long start = System.nanoTime();
+        assertEquals(100 * MS, bucket.acquire());
+        assertTrue(System.nanoTime() - start >= 100 * MS);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void qpsMustBePositive() {
+        new TokenBucket(0, 1);
+    }
+
+}
@@ -0,0 +1,80 @@
+package tech.jhipster.operator.core;
+
+import org.junit.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class WorkQueueTest {
+
+    @Test
+    public void pendingKeyIsQueuedOnce() throws InterruptedException {
+        WorkQueue queue = new WorkQueue();
+        queue.add("a");
+        queue.add("b");
+        queue.add("a");
+        assertEquals(2, queue.size());
+        assertEquals("a", queue.take());
+        assertEquals("b", queue.take());
+        assertEquals(0, queue.size());
+    }
+
+    @Test
+    public void nullKeyIsIgnored() {
+        WorkQueue queue = new WorkQueue();
+        queue.add(null);
+        assertEquals(0, queue.size());
+    }
+
+    @Test
+    public void keyAddedWhileProcessingIsQueuedAgainWhenDone() throws InterruptedException {
+        WorkQueue queue = new WorkQueue();
+        queue.add("a");
+        assertEquals("a", queue.take());
+        // Not handed to a second worker while the first one processes it
+        queue.add("a");
+        queue.add("a");
+        assertEquals(0, queue.size());
+        queue.done("a");
+        assertEquals(1, queue.size());
+        assertEquals("a", queue.take());
+        queue.done("a");
+        assertEquals(0, queue.size());
+    }
+
+    @Test
+    public void doneWithoutChangesDoesNotQueueAgain() throws InterruptedException {
+        WorkQueue queue = new WorkQueue();
+        queue.add("a");
+        queue.done(queue.take());
+        assertEquals(0, queue.size());
+        queue.add("a");
+        assertEquals(1, queue.size());
+    }
+
+    @Test
+    public void takeBlocksUntilAKeyIsAdded() throws InterruptedException {
+        WorkQueue queue = new WorkQueue();
+        AtomicReference<String> taken = new AtomicReference<>();
+        CountDownLatch done = new CountDownLatch(1);
+        Thread worker = new Thread(() -> {
+            try {
+                taken.set(queue.take());
+                done.countDown();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        worker.start();
+        assertNull(taken.get());
+        queue.add("a");
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+        assertEquals("a", taken.get());
+    }
+
+}
@@ -0,0 +1,138 @@
+package tech.jhipster.operator.core;
+
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class WriteBehindBufferTest {
+
+    // Long enough for the flushes of a test to be the ones it makes
+    private static final long NO_AUTO_FLUSH = TimeUnit.HOURS.toMillis(1);
+
+    private final WriteBehindBuffer buffer = new WriteBehindBuffer("test");
+    private final List<String> writes = new CopyOnWriteArrayList<>();
+
+    @After
+    public void stopBuffer() {
+        buffer.stop();
+    }
+
+    @Test
+    public void onlyTheLastWriteOfAKeyIsWritten() throws InterruptedException {
+        buffer.start(NO_AUTO_FLUSH, 2);
+        buffer.submit("a", () -> writes.add("a1"));
+        buffer.submit("b", () -> writes.add("b1"));
+        buffer.submit("a", () -> writes.add("a2"));
+        assertEquals(2, buffer.getPending());
+        assertEquals(1, buffer.getCoalesced());
+        buffer.flush();
+        await(buffer::isIdle);
+        assertEquals(2, writes.size());
+        assertTrue(writes.containsAll(Arrays.asList("a2", "b1")));
+        assertEquals(2, buffer.getWritten());
+    }
+
+    @Test
+    public void pendingWritesAreFlushedEveryInterval() throws InterruptedException {
+        buffer.start(20, 1);
+        buffer.submit("a", () -> writes.add("a1"));
+        await(() -> writes.size() == 1);
+        buffer.submit("a", () -> writes.add("a2"));
+        await(() -> writes.size() == 2);
+        assertEquals(Arrays.asList("a1", "a2"), writes);
+    }
+
+    @Test
+    public void keyIsNotWrittenByTwoWritersAtOnce() throws InterruptedException {
+        buffer.start(NO_AUTO_FLUSH, 2);
+        CountDownLatch writing = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        buffer.submit("a", () -> {
+            writing.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            writes.add("a1");
+        });
+        buffer.flush();
+        assertTrue(writing.await(5, TimeUnit.SECONDS));
+        buffer.submit("a", () -> writes.add("a2"));
+        buffer.flush();
+        // Waits for the next flush after the first write is done
+        assertEquals(1, buffer.getPending());
+        assertFalse(buffer.isIdle());
+        release.countDown();
+        await(() -> {
+            buffer.flush();
+            return writes.size() == 2;
+        });
+        await(buffer::isIdle);
+        assertEquals(Arrays.asList("a1", "a2"), writes);
+    }
+
+    @Test
+    public void failedWriteIsCountedAndReleasesItsKey() throws InterruptedException {
+        buffer.start(NO_AUTO_FLUSH, 1);
+        List<String> retries = new CopyOnWriteArrayList<>();
+        // Writes handle their own failures (the operator queues the app again), anything else is counted as failed
+        buffer.submit("a", () -> {
+            try {
+                throw new IllegalStateException("API Server unavailable");
+            } catch (IllegalStateException e) {
+                retries.add("a");
+            }
+        });
+        buffer.submit("b", () -> {
+            throw new IllegalStateException("unexpected");
+        });
+        buffer.flush();
+        await(buffer::isIdle);
+        assertEquals(Arrays.asList("a"), retries);
+        assertEquals(1, buffer.getFailed());
+        assertEquals(1, buffer.getWritten());
+        buffer.submit("b", () -> writes.add("b2"));
+        buffer.flush();
+        await(() -> writes.size() == 1);
+    }
+
+    @Test
+    public void idleOnlyWithNothingPendingOrBeingWritten() throws InterruptedException {
+        assertTrue(buffer.isIdle());
+        buffer.submit("a", () -> writes.add("a1"));
+        assertFalse(buffer.isIdle());
+        buffer.start(NO_AUTO_FLUSH, 1);
+        buffer.flush();
+        await(buffer::isIdle);
+        assertEquals(0, buffer.getPending());
+    }
+
+    @Test
+    public void stopFlushesThePendingWrites() {
+        buffer.start(NO_AUTO_FLUSH, 1);
+        buffer.submit("a", () -> writes.add("a1"));
+        buffer.stop();
+        assertEquals(Arrays.asList("a1"), writes);
+        assertTrue(buffer.isIdle());
+    }
+
+    private static void await(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(5);
+        while (!condition.getAsBoolean()) {
+            assertTrue("timed out", System.currentTimeMillis() < deadline);
+            Thread.sleep(10);
+        }
+    }
+
+}
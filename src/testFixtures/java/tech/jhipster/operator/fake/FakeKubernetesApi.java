@@ -0,0 +1,565 @@
+package tech.jhipster.operator.fake;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import io.fabric8.kubernetes.api.model.HasMetadata;
+import io.fabric8.kubernetes.client.Config;
+import io.fabric8.kubernetes.client.ConfigBuilder;
+import io.fabric8.kubernetes.client.DefaultKubernetesClient;
+import io.fabric8.kubernetes.client.KubernetesClient;
+import io.fabric8.kubernetes.client.utils.Serialization;
+import okhttp3.HttpUrl;
+import okhttp3.Response;
+import okhttp3.WebSocket;
+import okhttp3.WebSocketListener;
+import okhttp3.mockwebserver.Dispatcher;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+
+import javax.net.ServerSocketFactory;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/*
+ * In-process fake K8s API Server, good enough to run the operator against it
+ *  - Stores resources in memory by collection path (/api/v1/namespaces/{ns}/services, /apis/{group}/{version}/namespaces/{ns}/{plural})
+ *  - Supports get, list (limit/continue, all namespaces), create, replace (resourceVersion checked), JSON merge patch
+ *    (including the status subresource), delete and watch (web sockets)
+ *  - A watch from a resource version gets the resources changed since then as MODIFIED events, so that the writes
+ *    made between a list and its watch are not lost (deletions in between are not replayed)
+ *  - Counts the requests by verb and resource, to report the API calls that the operator makes
+ *  - Watches can be failed (410 to force a relist) or dropped (to be resumed), for the tests
+ */
+public class FakeKubernetesApi extends Dispatcher {
+
+    private static final ObjectMapper MAPPER = Serialization.jsonMapper();
+
+    private final MockWebServer server = new MockWebServer();
+    private final AtomicLong resourceVersion = new AtomicLong(1);
+    // Collection path (namespaced) -> name -> resource
+    private final Map<String, Map<String, ObjectNode>> store = new ConcurrentHashMap<>();
+    private final List<WatchSubscription> watches = new CopyOnWriteArrayList<>();
+    // Accepted connections, to break them like a network failure
+    private final List<Socket> connections = new CopyOnWriteArrayList<>();
+    private final Map<String, AtomicLong> requests = new ConcurrentHashMap<>();
+    private final AtomicLong totalRequests = new AtomicLong();
+
+    public void start() throws IOException {
+        // MockWebServer logs every request (java.util.logging)
+        java.util.logging.Logger.getLogger(MockWebServer.class.getName()).setLevel(java.util.logging.Level.WARNING);
+        server.setDispatcher(this);
+        server.setServerSocketFactory(new NoDelayServerSocketFactory());
+        server.start();
+    }
+
+    public void stop() throws IOException {
+        watches.forEach(watch -> watch.socket.close(1000, "stopping"));
+        server.shutdown();
+    }
+
+    public String getUrl() {
+        return server.url("/").toString();
+    }
+
+    /*
+     * A client that talks to this server, without trying the local kube config or service account
+     */
+    public KubernetesClient createClient(String namespace) {
+        return new DefaultKubernetesClient(createClientConfig(namespace));
+    }
+
+    public Config createClientConfig(String namespace) {
+        return new ConfigBuilder().withMasterUrl(getUrl()).withNamespace(namespace).withTrustCerts(true)
+                .withRequestTimeout(30000).withConnectionTimeout(10000).build();
+    }
+
+    /*
+     * Store a resource without counting a request and without notifying the watches (seeding)
+     */
+    public void seed(String collectionPath, HasMetadata resource) {
+        ObjectNode node = MAPPER.valueToTree(resource);
+        ObjectNode metadata = (ObjectNode) node.get("metadata");
+        metadata.put("resourceVersion", String.valueOf(resourceVersion.incrementAndGet()));
+        if (!metadata.hasNonNull("uid")) {
+            metadata.put("uid", java.util.UUID.randomUUID().toString());
+        }
+        if (!metadata.hasNonNull("generation")) {
+            metadata.put("generation", 1);
+        }
+        collection(collectionPath).put(resource.getMetadata().getName(), node);
+    }
+
+    /*
+     * Change a resource as a client would, watches are notified
+     */
+    public synchronized void update(String collectionPath, String name, JsonNode mergePatch, boolean specChange) {
+        ObjectNode current = collection(collectionPath).get(name);
+        if (current == null) {
+            return;
+        }
+        ObjectNode next = current.deepCopy();
+        mergePatch(next, mergePatch);
+        ObjectNode metadata = (ObjectNode) next.get("metadata");
+        if (specChange) {
+            metadata.put("generation", metadata.path("generation").asLong(1) + 1);
+        }
+        store(collectionPath, name, next, "MODIFIED");
+    }
+
+    public synchronized void delete(String collectionPath, String name) {
+        ObjectNode removed = collection(collectionPath).remove(name);
+        if (removed != null) {
+            ((ObjectNode) removed.get("metadata")).put("resourceVersion", String.valueOf(resourceVersion.incrementAndGet()));
+            notifyWatches(collectionPath, "DELETED", removed);
+        }
+    }
+
+    public synchronized void create(String collectionPath, HasMetadata resource) {
+        seed(collectionPath, resource);
+        notifyWatches(collectionPath, "ADDED", collection(collectionPath).get(resource.getMetadata().getName()));
+    }
+
+    /*
+     * Remove a resource without notifying the watches, as if it was deleted while nobody was watching
+     */
+    public synchronized void forget(String collectionPath, String name) {
+        collection(collectionPath).remove(name);
+    }
+
+    /*
+     * Send an ERROR event with a Status of this code to every open watch, 410 (Gone) tells the clients to list again
+     */
+    public void failWatches(int code, String reason) {
+        ObjectNode event = MAPPER.createObjectNode();
+        event.put("type", "ERROR");
+        ObjectNode status = event.putObject("object");
+        status.put("apiVersion", "v1");
+        status.put("kind", "Status");
+        status.put("status", "Failure");
+        status.put("reason", reason);
+        status.put("message", reason);
+        status.put("code", code);
+        String message = event.toString();
+        watches.forEach(watch -> watch.socket.send(message));
+    }
+
+    /*
+     * Break every open connection, the clients watch again from the last resource version they saw
+     *  - The connections are closed without a close handshake: OkHttp 3.8 sometimes loses the reconnect of a watch that
+     *    the server closed cleanly (NullPointerException in its dispatcher), the watch would never come back
+     */
+    public void dropWatches() {
+        watches.clear();
+        for (Socket connection : connections) {
+            connections.remove(connection);
+            try {
+                connection.close();
+            } catch (IOException e) {
+                // Closed already
+            }
+        }
+    }
+
+    public ObjectNode get(String collectionPath, String name) {
+        return collection(collectionPath).get(name);
+    }
+
+    public int size(String collectionPath) {
+        return collection(collectionPath).size();
+    }
+
+    public long getTotalRequests() {
+        return totalRequests.get();
+    }
+
+    /*
+     * Requests by "verb resource", for example "patch applications/status"
+     */
+    public Map<String, Long> getRequests() {
+        Map<String, Long> counts = new TreeMap<>();
+        requests.forEach((key, count) -> counts.put(key, count.get()));
+        return counts;
+    }
+
+    public void resetRequests() {
+        requests.clear();
+        totalRequests.set(0);
+    }
+
+    public int getOpenWatches() {
+        return watches.size();
+    }
+
+    @Override
+    public MockResponse dispatch(RecordedRequest request) throws InterruptedException {
+        // MockWebServer keeps every request until it is taken, we only count them
+        server.takeRequest(0, TimeUnit.MILLISECONDS);
+        HttpUrl url = server.url(request.getPath());
+        Path path = Path.parse(url.encodedPath());
+        if (path == null) {
+            return status(404, "NotFound", "unknown path " + url.encodedPath());
+        }
+        boolean watch = "true".equals(url.queryParameter("watch"));
+        String verb = watch ? "watch" : verb(request.getMethod(), path);
+        count(verb + " " + path.resource + ((path.subresource != null) ? "/" + path.subresource : ""));
+        try {
+            if (watch) {
+                return watch(path, url);
+            }
+            switch (verb) {
+                case "list":
+                    return list(path, url);
+                case "get":
+                    return get(path);
+                case "create":
+                    return create(path, request.getBody().readUtf8());
+                case "update":
+                    return replace(path, request.getBody().readUtf8());
+                case "patch":
+                    return patch(path, request.getBody().readUtf8());
+                case "delete":
+                    delete(path.collection, path.name);
+                    return status(200, "Success", "deleted");
+                default:
+                    return status(405, "MethodNotAllowed", request.getMethod());
+            }
+        } catch (IOException e) {
+            return status(400, "BadRequest", e.getMessage());
+        }
+    }
+
+    private MockResponse list(Path path, HttpUrl url) throws IOException {
+        List<ObjectNode> items = new ArrayList<>();
+        if (path.namespace == null) {
+            // All namespaces: every collection of this resource
+            store.forEach((collectionPath, resources) -> {
+                if (Path.parse(collectionPath).resource.equals(path.resource)) {
+                    items.addAll(resources.values());
+                }
+            });
+        } else {
+            items.addAll(new TreeMap<>(collection(path.collection)).values());
+        }
+        int offset = (url.queryParameter("continue") == null) ? 0 : Integer.parseInt(url.queryParameter("continue"));
+        int limit = (url.queryParameter("limit") == null) ? Integer.MAX_VALUE : Integer.parseInt(url.queryParameter("limit"));
+        int end = (int) Math.min((long) offset + limit, items.size());
+        ObjectNode list = MAPPER.createObjectNode();
+        list.put("apiVersion", "v1");
+        list.put("kind", "List");
+        ObjectNode metadata = list.putObject("metadata");
+        metadata.put("resourceVersion", String.valueOf(resourceVersion.get()));
+        if (end < items.size()) {
+            metadata.put("continue", String.valueOf(end));
+        }
+        ArrayNode array = list.putArray("items");
+        for (int i = offset; i < end; i++) {
+            array.add(items.get(i));
+        }
+        return json(200, list);
+    }
+
+    private MockResponse get(Path path) {
+        ObjectNode resource = collection(path.collection).get(path.name);
+        if (resource == null) {
+            return status(404, "NotFound", path.resource + " " + path.name + " not found");
+        }
+        return json(200, resource);
+    }
+
+    private synchronized MockResponse create(Path path, String body) throws IOException {
+        ObjectNode resource = (ObjectNode) MAPPER.readTree(body);
+        String name = resource.path("metadata").path("name").asText();
+        if (collection(path.collection).containsKey(name)) {
+            return status(409, "AlreadyExists", path.resource + " " + name + " already exists");
+        }
+        ObjectNode metadata = (ObjectNode) resource.get("metadata");
+        metadata.put("uid", java.util.UUID.randomUUID().toString());
+        metadata.put("generation", 1);
+        store(path.collection, name, resource, "ADDED");
+        return json(201, resource);
+    }
+
+    private synchronized MockResponse replace(Path path, String body) throws IOException {
+        ObjectNode current = collection(path.collection).get(path.name);
+        if (current == null) {
+            return status(404, "NotFound", path.resource + " " + path.name + " not found");
+        }
+        ObjectNode resource = (ObjectNode) MAPPER.readTree(body);
+        String expected = resource.path("metadata").path("resourceVersion").asText("");
+        if (!expected.isEmpty() && !expected.equals(current.path("metadata").path("resourceVersion").asText())) {
+            return status(409, "Conflict", "the object has been modified");
+        }
+        store(path.collection, path.name, resource, "MODIFIED");
+        return json(200, resource);
+    }
+
+    private synchronized MockResponse patch(Path path, String body) throws IOException {
+        ObjectNode current = collection(path.collection).get(path.name);
+        if (current == null) {
+            return status(404, "NotFound", path.resource + " " + path.name + " not found");
+        }
+        JsonNode patch = MAPPER.readTree(body);
+        ObjectNode next = current.deepCopy();
+        if ("status".equals(path.subresource)) {
+            // Only the status can be changed through the status subresource
+            if (patch.has("status")) {
+                ObjectNode statusPatch = MAPPER.createObjectNode();
+                statusPatch.set("status", patch.get("status"));
+                mergePatch(next, statusPatch);
+            }
+        } else {
+            mergePatch(next, patch);
+        }
+        store(path.collection, path.name, next, "MODIFIED");
+        return json(200, next);
+    }
+
+    private MockResponse watch(Path path, HttpUrl url) {
+        String fieldSelector = url.queryParameter("fieldSelector");
+        String name = (fieldSelector != null && fieldSelector.startsWith("metadata.name=")) ? fieldSelector.substring("metadata.name=".length()) : null;
+        String since = url.queryParameter("resourceVersion");
+        return new MockResponse().withWebSocketUpgrade(new WebSocketListener() {
+            private WatchSubscription subscription;
+
+            @Override
+            public void onOpen(WebSocket webSocket, Response response) {
+                subscription = new WatchSubscription(path, name, webSocket);
+                // A change is either replayed or notified, never both
+                synchronized (FakeKubernetesApi.this) {
+                    watches.add(subscription);
+                    if (since != null && !since.isEmpty()) {
+                        replay(subscription, Long.parseLong(since));
+                    }
+                }
+            }
+
+            @Override
+            public void onClosing(WebSocket webSocket, int code, String reason) {
+                watches.remove(subscription);
+                webSocket.close(1000, null);
+            }
+
+            @Override
+            public void onFailure(WebSocket webSocket, Throwable t, Response response) {
+                watches.remove(subscription);
+            }
+        });
+    }
+
+    private void store(String collectionPath, String name, ObjectNode resource, String type) {
+        ((ObjectNode) resource.get("metadata")).put("resourceVersion", String.valueOf(resourceVersion.incrementAndGet()));
+        collection(collectionPath).put(name, resource);
+        notifyWatches(collectionPath, type, resource);
+    }
+
+    private void notifyWatches(String collectionPath, String type, ObjectNode resource) {
+        if (watches.isEmpty()) {
+            return;
+        }
+        Path path = Path.parse(collectionPath);
+        ObjectNode event = MAPPER.createObjectNode();
+        event.put("type", type);
+        event.set("object", resource);
+        String message = event.toString();
+        for (WatchSubscription watch : watches) {
+            if (watch.matches(path, resource.path("metadata").path("name").asText())) {
+                watch.socket.send(message);
+            }
+        }
+    }
+
+    private void replay(WatchSubscription watch, long since) {
+        store.forEach((collectionPath, resources) -> {
+            Path path = Path.parse(collectionPath);
+            resources.forEach((name, resource) -> {
+                if (watch.matches(path, name) && resource.path("metadata").path("resourceVersion").asLong() > since) {
+                    ObjectNode event = MAPPER.createObjectNode();
+                    event.put("type", "MODIFIED");
+                    event.set("object", resource);
+                    watch.socket.send(event.toString());
+                }
+            });
+        });
+    }
+
+    private Map<String, ObjectNode> collection(String collectionPath) {
+        return store.computeIfAbsent(collectionPath, c -> new ConcurrentHashMap<>());
+    }
+
+    private void count(String key) {
+        totalRequests.incrementAndGet();
+        requests.computeIfAbsent(key, k -> new AtomicLong()).incrementAndGet();
+    }
+
+    private static String verb(String method, Path path) {
+        switch (method) {
+            case "GET":
+                return (path.name == null) ? "list" : "get";
+            case "POST":
+                return "create";
+            case "PUT":
+                return "update";
+            case "PATCH":
+                return "patch";
+            case "DELETE":
+                return "delete";
+            default:
+                return method.toLowerCase();
+        }
+    }
+
+    /*
+     * RFC 7386 JSON merge patch
+     */
+    static void mergePatch(ObjectNode target, JsonNode patch) {
+        Iterator<Map.Entry<String, JsonNode>> fields = patch.fields();
+        while (fields.hasNext()) {
+            Map.Entry<String, JsonNode> field = fields.next();
+            JsonNode value = field.getValue();
+            if (value.isNull()) {
+                target.remove(field.getKey());
+            } else if (value.isObject() && target.path(field.getKey()).isObject()) {
+                mergePatch((ObjectNode) target.get(field.getKey()), value);
+            } else {
+                target.set(field.getKey(), value.deepCopy());
+            }
+        }
+    }
+
+    private static MockResponse json(int code, JsonNode body) {
+        return new MockResponse().setResponseCode(code).setHeader("Content-Type", "application/json").setBody(body.toString());
+    }
+
+    private static MockResponse status(int code, String reason, String message) {
+        ObjectNode status = MAPPER.createObjectNode();
+        status.put("apiVersion", "v1");
+        status.put("kind", "Status");
+        status.put("status", (code < 400) ? "Success" : "Failure");
+        status.put("reason", reason);
+        status.put("message", message);
+        status.put("code", code);
+        return json(code, status);
+    }
+
+    public static String servicesPath(String namespace) {
+        return "/api/v1/namespaces/" + namespace + "/services";
+    }
+
+    public static String customResourcesPath(String group, String version, String namespace, String plural) {
+        return "/apis/" + group + "/" + version + "/namespaces/" + namespace + "/" + plural;
+    }
+
+    /*
+     * /api/v1/[namespaces/{ns}/]{resource}[/{name}[/{subresource}]] or /apis/{group}/{version}/[namespaces/{ns}/]{resource}[/{name}[/{subresource}]]
+     */
+    static class Path {
+        String collection;
+        String namespace;
+        String resource;
+        String name;
+        String subresource;
+
+        static Path parse(String encodedPath) {
+            String[] segments = encodedPath.replaceAll("^/+|/+$", "").split("/");
+            int index;
+            if (segments.length >= 3 && segments[0].equals("api")) {
+                index = 2;
+            } else if (segments.length >= 4 && segments[0].equals("apis")) {
+                index = 3;
+            } else {
+                return null;
+            }
+            Path path = new Path();
+            StringBuilder collection = new StringBuilder();
+            for (int i = 0; i < index; i++) {
+                collection.append('/').append(segments[i]);
+            }
+            if (segments.length > index + 2 && segments[index].equals("namespaces")) {
+                path.namespace = segments[index + 1];
+                collection.append("/namespaces/").append(path.namespace);
+                index += 2;
+            }
+            path.resource = segments[index];
+            path.collection = collection.append('/').append(path.resource).toString();
+            if (segments.length > index + 1) {
+                path.name = segments[index + 1];
+            }
+            if (segments.length > index + 2) {
+                path.subresource = segments[index + 2];
+            }
+            return path;
+        }
+    }
+
+    /*
+     * Responses are written in several small writes, without TCP_NODELAY every request would wait for a delayed ACK
+     */
+    private class NoDelayServerSocketFactory extends ServerSocketFactory {
+
+        @Override
+        public ServerSocket createServerSocket() throws IOException {
+            return new ServerSocket() {
+                @Override
+                public Socket accept() throws IOException {
+                    Socket socket = super.accept();
+                    socket.setTcpNoDelay(true);
+                    connections.removeIf(Socket::isClosed);
+                    connections.add(socket);
+                    return socket;
+                }
+            };
+        }
+
+        @Override
+        public ServerSocket createServerSocket(int port) throws IOException {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public ServerSocket createServerSocket(int port, int backlog) throws IOException {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public ServerSocket createServerSocket(int port, int backlog, InetAddress address) throws IOException {
+            throw new UnsupportedOperationException();
+        }
+    }
+
+    private static class WatchSubscription {
+        private final Path path;
+        private final String name;
+        private final WebSocket socket;
+
+        WatchSubscription(Path path, String name, WebSocket socket) {
+            this.path = path;
+            this.name = name;
+            this.socket = socket;
+        }
+
+        boolean matches(Path changed, String changedName) {
+            if (!path.resource.equals(changed.resource)) {
+                return false;
+            }
+            if (path.namespace != null && !path.namespace.equals(changed.namespace)) {
+                return false;
+            }
+            return name == null || name.equals(changedName);
+        }
+    }
+
+}